@@ -0,0 +1,63 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndex;
+
+/**
+ * Mede só o índice invertido, sem banco, sobre um catálogo de
+ * {@code catalogSize} livros com vocabulário de títulos variado.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookSearchIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "memorias", "postumas", "dom", "casmurro", "vidas", "secas", "grande", "sertao", "veredas",
+            "capitaes", "areia", "hora", "estrela", "cortico", "iracema", "senhora", "macunaima", "quincas"
+    };
+
+    @Param("1000000")
+    public int catalogSize;
+
+    private BookSearchIndex index;
+
+    @Setup
+    public void setup() {
+        index = new BookSearchIndex();
+        for (int i = 0; i < catalogSize; i++) {
+            index.index(Book.builder()
+                    .id((long) i)
+                    .title(WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " volume" + (i % 5000))
+                    .autor("autor" + (i % 20000))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public BookSearchIndex.Hits searchRareTerms() {
+        return index.search("volume4321 autor1234", 20);
+    }
+
+    @Benchmark
+    public BookSearchIndex.Hits searchCommonTerm() {
+        return index.search("casmurro", 20);
+    }
+}
@@ -0,0 +1,52 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.services.BookService;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    private BookService bookService;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setup(LibraryState state) {
+        bookService = state.getBean(BookService.class);
+        pageRequest = PageRequest.of(0, 20);
+    }
+
+    @Benchmark
+    public Page<Book> findByTitle() {
+        return bookService.find(Book.builder().title("titulo 12").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<Book> findByAutor() {
+        return bookService.find(Book.builder().autor("Autor 7").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<Book> searchByTitleAndAutor() {
+        return bookService.search("titulo 12 autor 7", pageRequest);
+    }
+}
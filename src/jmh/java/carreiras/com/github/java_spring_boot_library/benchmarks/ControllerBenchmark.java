@@ -0,0 +1,65 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import carreiras.com.github.java_spring_boot_library.controllers.BookController;
+import carreiras.com.github.java_spring_boot_library.controllers.LoanController;
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+
+/**
+ * Mede as listagens dos controllers (consulta + mapeamento para DTO),
+ * sem a camada HTTP.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ControllerBenchmark {
+
+    @Param("100")
+    public int pageSize;
+
+    private BookController bookController;
+    private LoanController loanController;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setup(LibraryState state) {
+        bookController = state.getBean(BookController.class);
+        loanController = state.getBean(LoanController.class);
+        pageRequest = PageRequest.of(0, pageSize);
+    }
+
+    @Benchmark
+    public Page<BookDTO> findBooks() {
+        return bookController.find(BookDTO.builder().autor("Autor 7").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<LoanDTO> findLoans() {
+        return loanController.find(LoanFilterDTO.builder().customer("Cliente 10").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<LoanDTO> loansByBook() {
+        return bookController.loansByBook(1L, pageRequest);
+    }
+}
@@ -0,0 +1,58 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara o pool de threads de plataforma do Tomcat com threads virtuais
+ * sob alta concorrência: 256 clientes simultâneos chamando os controllers
+ * por HTTP. Throughput em operações/ms e SampleTime com os percentis
+ * (p0.99) da latência.
+ *
+ * mvn -Pbenchmark,java21 test-compile exec:exec -Djmh.args="HttpBenchmark"
+ */
+@Fork(1)
+@Threads(256)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HttpBenchmark {
+
+    @Benchmark
+    public int getBook(ServerState state) throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, state.datasetSize + 1);
+        return get(state, "/api/books/" + id);
+    }
+
+    @Benchmark
+    public int findBooks(ServerState state) throws IOException, InterruptedException {
+        return get(state, "/api/books?autor=Autor%20" + ThreadLocalRandom.current().nextInt(100) + "&size=20");
+    }
+
+    @Benchmark
+    public int findLoans(ServerState state) throws IOException, InterruptedException {
+        return get(state, "/api/loans?customer=Cliente%20" + ThreadLocalRandom.current().nextInt(1000) + "&size=20");
+    }
+
+    private int get(ServerState state, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(state.baseUrl + path)).GET().build();
+        HttpResponse<byte[]> response = state.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,101 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import carreiras.com.github.java_spring_boot_library.Application;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndexInitializer;
+
+/**
+ * Sobe a aplicação sem servidor web sobre um H2 em memória e popula
+ * {@code datasetSize} livros, metade deles com um empréstimo em aberto.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param("10000")
+    public int datasetSize;
+
+    public ConfigurableApplicationContext context;
+    public List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.config.name=benchmark")
+                .run();
+
+        books = seed(context, datasetSize);
+    }
+
+    /**
+     * Popula {@code datasetSize} livros em lotes, com um empréstimo em aberto
+     * a cada dois livros, e reconstrói o índice de busca.
+     */
+    static List<Book> seed(ConfigurableApplicationContext context, int datasetSize) {
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        LoanRepository loanRepository = context.getBean(LoanRepository.class);
+
+        List<Book> books = new ArrayList<>(datasetSize);
+        for (int start = 0; start < datasetSize; start += CHUNK_SIZE) {
+            List<Book> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = start; i < Math.min(start + CHUNK_SIZE, datasetSize); i++) {
+                chunk.add(Book.builder()
+                        .title("Titulo " + i)
+                        .autor("Autor " + (i % 100))
+                        .isbn(String.format("%09d", i))
+                        .build());
+            }
+            books.addAll(bookRepository.saveAll(chunk));
+        }
+
+        List<Loan> loans = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < books.size(); i += 2) {
+            loans.add(Loan.builder()
+                    .book(books.get(i))
+                    .customer("Cliente " + (i % 1000))
+                    .customerEmail("cliente" + (i % 1000) + "@email.com")
+                    .loanDate(LocalDate.now().minusDays(i % 10))
+                    .dueDate(LocalDate.now().minusDays(i % 10).plusDays(3))
+                    .build());
+            if (loans.size() == CHUNK_SIZE) {
+                loanRepository.saveAll(loans);
+                loans.clear();
+            }
+        }
+        loanRepository.saveAll(loans);
+        context.getBean(JdbcTemplate.class).update("update book b set active_loan_id = " +
+                "(select max(l.id) from loan l where l.id_book = b.id and (l.returned is null or l.returned = false))");
+
+        context.getBean(BookSearchIndexInitializer.class).rebuild();
+        return books;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
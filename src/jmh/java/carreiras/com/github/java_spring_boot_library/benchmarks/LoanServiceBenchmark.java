@@ -0,0 +1,99 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
+import carreiras.com.github.java_spring_boot_library.services.BookService;
+import carreiras.com.github.java_spring_boot_library.services.LoanService;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoanServiceBenchmark {
+
+    private BookService bookService;
+    private LoanService loanService;
+    private LoanRepository loanRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Book> books;
+    private int next;
+
+    @Setup
+    public void setup(LibraryState state) {
+        bookService = state.getBean(BookService.class);
+        loanService = state.getBean(LoanService.class);
+        loanRepository = state.getBean(LoanRepository.class);
+        jdbcTemplate = state.getBean(JdbcTemplate.class);
+        books = state.books;
+        resetLoans();
+    }
+
+    /**
+     * Cada livro só pode ser emprestado uma vez: ao esgotar a massa os
+     * empréstimos são apagados fora da medição e o ciclo recomeça.
+     */
+    @Setup(Level.Invocation)
+    public void nextBook() {
+        if (next == books.size()) {
+            resetLoans();
+            next = 0;
+        }
+    }
+
+    private void resetLoans() {
+        loanRepository.deleteAllInBatch();
+        jdbcTemplate.update("update book set active_loan_id = null");
+    }
+
+    @Benchmark
+    public Loan save() {
+        Loan loan = Loan.builder()
+                .book(books.get(next++))
+                .customer("Fulano")
+                .customerEmail("fulano@email.com")
+                .loanDate(LocalDate.now())
+                .build();
+        return loanService.save(loan);
+    }
+
+    /**
+     * Caminho anterior do controller: carrega o livro pelo isbn numa
+     * transação e grava o empréstimo em outra.
+     */
+    @Benchmark
+    public Loan findByIsbnThenSave() {
+        Book book = bookService.getBookByIsbn(books.get(next++).getIsbn()).get();
+        Loan loan = Loan.builder()
+                .book(book)
+                .customer("Fulano")
+                .customerEmail("fulano@email.com")
+                .loanDate(LocalDate.now())
+                .build();
+        return loanService.save(loan);
+    }
+
+    @Benchmark
+    public Loan checkout() {
+        return loanService.checkout(books.get(next++).getIsbn(), "Fulano", "fulano@email.com");
+    }
+}
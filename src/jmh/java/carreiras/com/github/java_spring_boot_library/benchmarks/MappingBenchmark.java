@@ -0,0 +1,94 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.mappers.BookMapper;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
+
+/**
+ * Compara o ModelMapper reflexivo com os mappers gerados pelo MapStruct
+ * para as conversões feitas pelos controllers a cada linha de resposta.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private LoanMapper loanMapper;
+
+    private Book book;
+    private BookDTO bookDTO;
+    private Loan loan;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        bookMapper = Mappers.getMapper(BookMapper.class);
+        loanMapper = Mappers.getMapper(LoanMapper.class);
+
+        book = Book.builder().id(1L).title("Titulo").autor("Autor").isbn("123456789").build();
+        bookDTO = BookDTO.builder().title("Titulo").autor("Autor").isbn("123456789").build();
+        loan = Loan.builder()
+                .id(1L)
+                .customer("Fulano")
+                .customerEmail("fulano@email.com")
+                .book(book)
+                .loanDate(LocalDate.now())
+                .build();
+    }
+
+    @Benchmark
+    public BookDTO bookToDTOModelMapper() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookToDTOMapStruct() {
+        return bookMapper.toDTO(book);
+    }
+
+    @Benchmark
+    public Book dtoToBookModelMapper() {
+        return modelMapper.map(bookDTO, Book.class);
+    }
+
+    @Benchmark
+    public Book dtoToBookMapStruct() {
+        return bookMapper.toEntity(bookDTO);
+    }
+
+    @Benchmark
+    public LoanDTO loanToDTOModelMapper() {
+        LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
+        loanDTO.setBook(modelMapper.map(loan.getBook(), BookDTO.class));
+        return loanDTO;
+    }
+
+    @Benchmark
+    public LoanDTO loanToDTOMapStruct() {
+        return loanMapper.toDTO(loan);
+    }
+}
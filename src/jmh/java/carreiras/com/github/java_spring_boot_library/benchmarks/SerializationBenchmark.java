@@ -0,0 +1,61 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.mappers.BookMapper;
+
+/**
+ * Serializa uma página de {@link BookDTO} com o ObjectMapper configurado
+ * pelo Spring, como na resposta de GET /api/books.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param("100")
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<BookDTO> page;
+
+    @Setup
+    public void setup(LibraryState state) {
+        objectMapper = state.getBean(ObjectMapper.class);
+        BookMapper bookMapper = state.getBean(BookMapper.class);
+        List<BookDTO> content = state.books.stream()
+                .limit(pageSize)
+                .map(bookMapper::toDTO)
+                .collect(Collectors.toList());
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), state.books.size());
+    }
+
+    @Benchmark
+    public byte[] pageOfBookDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,58 @@
+package carreiras.com.github.java_spring_boot_library.benchmarks;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import carreiras.com.github.java_spring_boot_library.Application;
+
+/**
+ * Sobe a aplicação com o Tomcat numa porta livre, com ou sem threads
+ * virtuais ({@code virtualThreads=true} exige Java 21), e popula a mesma
+ * massa do {@link LibraryState}.
+ */
+@State(Scope.Benchmark)
+public class ServerState {
+
+    @Param("10000")
+    public int datasetSize;
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    public ConfigurableApplicationContext context;
+    public HttpClient client;
+    public String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "spring.config.name=benchmark",
+                        "server.port=0",
+                        "application.virtual-threads.enabled=" + virtualThreads)
+                .run();
+        LibraryState.seed(context, datasetSize);
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
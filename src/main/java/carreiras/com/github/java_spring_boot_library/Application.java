@@ -1,18 +1,26 @@
 package carreiras.com.github.java_spring_boot_library;
 
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import carreiras.com.github.java_spring_boot_library.mappers.BookMapper;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
+
 @EnableScheduling
 @SpringBootApplication
 public class Application {
 
 	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
+	public BookMapper bookMapper() {
+		return Mappers.getMapper(BookMapper.class);
+	}
+
+	@Bean
+	public LoanMapper loanMapper() {
+		return Mappers.getMapper(LoanMapper.class);
 	}
 
 	public static void main(String[] args) {
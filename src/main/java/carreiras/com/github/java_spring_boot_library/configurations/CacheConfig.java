@@ -0,0 +1,12 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS_CACHE = "books";
+    public static final String BOOKS_BY_ISBN_CACHE = "booksByIsbn";
+}
@@ -0,0 +1,55 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import carreiras.com.github.java_spring_boot_library.idempotency.DatabaseIdempotencyStore;
+import carreiras.com.github.java_spring_boot_library.idempotency.IdempotencyFilter;
+import carreiras.com.github.java_spring_boot_library.idempotency.IdempotencyStore;
+import carreiras.com.github.java_spring_boot_library.idempotency.InMemoryIdempotencyStore;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.IdempotencyKeyRepository;
+
+/**
+ * Idempotency-Key nos POSTs de /api/books e /api/loans. As chaves ficam em
+ * memória por padrão; com application.idempotency.store=database ficam na
+ * tabela idempotency_key e valem para todas as instâncias.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(
+            @Value("${application.idempotency.stripes:16}") int stripes,
+            @Value("${application.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${application.idempotency.ttl-minutes:60}") long ttlMinutes) {
+        return new InMemoryIdempotencyStore(stripes, maxEntries, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.idempotency.store", havingValue = "database")
+    public IdempotencyStore databaseIdempotencyStore(IdempotencyKeyRepository repository,
+            @Value("${application.idempotency.ttl-minutes:60}") long ttlMinutes) {
+        return new DatabaseIdempotencyStore(repository, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+            ObjectMapper objectMapper, LibraryMetrics metrics) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, objectMapper, metrics));
+        registration.addUrlPatterns("/api/books", "/api/loans");
+        return registration;
+    }
+}
@@ -0,0 +1,49 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Variante não bloqueante da API, ativada pelo perfil "reactive": os mesmos
+ * endpoints e DTOs servidos pelo WebFlux sobre repositórios R2DBC. O JPA
+ * continua criando o esquema e atendendo os jobs, no mesmo H2 em memória
+ * (ver application-reactive.properties).
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * O Spring Boot não cria o DataSource quando há um ConnectionFactory do
+     * R2DBC, mas o JPA continua precisando dele.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public DataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * O gerenciador de transações do R2DBC não é registrado como bean para não
+     * disputar os @Transactional com o do JPA.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
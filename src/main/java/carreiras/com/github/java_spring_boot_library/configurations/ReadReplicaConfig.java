@@ -0,0 +1,82 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import carreiras.com.github.java_spring_boot_library.datasource.ReadWriteRoutingDataSource;
+import carreiras.com.github.java_spring_boot_library.datasource.ReplicaLagMonitor;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+
+/**
+ * Réplica de leitura: com application.datasource.replica.url configurada, as
+ * transações somente leitura dos serviços abrem conexão na réplica e as
+ * demais na primária (spring.datasource.*). Sem a propriedade a aplicação
+ * usa só o DataSource padrão do Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("application.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${application.datasource.replica.url}") String url,
+            @Value("${application.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${application.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${application.datasource.replica.max-lag-millis:5000}") long maxLagMillis,
+            LibraryMetrics metrics) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, Duration.ofMillis(maxLagMillis),
+                Clock.systemUTC());
+        metrics.replicaLag(monitor, ReplicaLagMonitor::getLagMillis);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor,
+            LibraryMetrics metrics) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, lagMonitor, metrics));
+    }
+}
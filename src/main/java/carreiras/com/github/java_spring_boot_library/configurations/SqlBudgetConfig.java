@@ -0,0 +1,44 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.internal.StatisticsInitiator;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.metrics.SqlBudgetInterceptor;
+import carreiras.com.github.java_spring_boot_library.metrics.SqlExecutionListener;
+import carreiras.com.github.java_spring_boot_library.metrics.SqlStatistics;
+
+/**
+ * Orçamento de SQL por requisição e log de consultas lentas, no lugar do
+ * spring.jpa.show-sql. Liga as estatísticas do Hibernate com
+ * {@link SqlStatistics} e o {@link SqlExecutionListener} em cada sessão.
+ */
+@Configuration
+public class SqlBudgetConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsCustomizer(
+            @Value("${application.sql.slow-query-millis:200}") long slowQueryMillis) {
+        StatisticsFactory statisticsFactory = sessionFactory -> new SqlStatistics(sessionFactory, slowQueryMillis);
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(StatisticsInitiator.STATS_BUILDER, statisticsFactory);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlExecutionListener.class.getName());
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    @Bean
+    public MappedInterceptor sqlBudgetInterceptor(LibraryMetrics metrics,
+            @Value("${application.sql.budget.max-statements:20}") int maxStatements,
+            @Value("${application.sql.budget.fail-on-violation:false}") boolean failOnViolation) {
+        return new MappedInterceptor(new String[] { "/api/**" },
+                new SqlBudgetInterceptor(metrics, maxStatements, failOnViolation));
+    }
+}
@@ -0,0 +1,55 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Acesso às threads virtuais (Java 21) sem exigir Java 21 para compilar:
+ * o projeto continua em release 17 e as APIs são obtidas por reflexão
+ * quando o modo de threads virtuais é ligado.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Fábrica de threads virtuais nomeadas {@code prefix0}, {@code prefix1}...
+     */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                    .getMethod("name", String.class, long.class)
+                    .invoke(builder, prefix, 0L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory")
+                    .invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer.", ex);
+        }
+    }
+
+    /**
+     * Executor que inicia uma thread virtual nova para cada tarefa.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = factory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer.", ex);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+/**
+ * Modo opcional (application.virtual-threads.enabled=true, Java 21+): as
+ * requisições do Tomcat, as respostas assíncronas do MVC (exportações
+ * NDJSON) e os jobs agendados passam a rodar em threads virtuais, em vez
+ * dos pools de threads de plataforma. O envio de e-mails segue a mesma
+ * propriedade em EmailServiceImpl.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        if (!VirtualThreads.isSupported())
+            throw new IllegalStateException("application.virtual-threads.enabled requires Java 21 or newer.");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-"));
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-"));
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        return new ConcurrentTaskScheduler(Executors.newSingleThreadScheduledExecutor(VirtualThreads.factory("scheduling-")));
+    }
+}
@@ -1,5 +1,6 @@
 package carreiras.com.github.java_spring_boot_library.controllers;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.server.ResponseStatusException;
 
 import carreiras.com.github.java_spring_boot_library.exceptions.ApiErrors;
@@ -23,12 +25,25 @@ public class ApplicationControllerAdvice {
         return new ApiErrors(bindingResult);
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ApiErrors handleValidationExceptions(WebExchangeBindException ex) {
+        return new ApiErrors(ex.getBindingResult());
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(BusinessException.class)
     public ApiErrors handleBusinessExceptions(BusinessException ex) {
         return new ApiErrors(ex);
     }
 
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ApiErrors handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return new ApiErrors(new ResponseStatusException(HttpStatus.CONFLICT,
+                "Resource was modified by a concurrent request, reload it and try again"));
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity handleResponseStatusException(ResponseStatusException ex) {
         return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
@@ -2,16 +2,28 @@ package carreiras.com.github.java_spring_boot_library.controllers;
 
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,17 +31,35 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookAvailabilityDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.BookImportResultDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.BookImportResultDTO.Status;
+import carreiras.com.github.java_spring_boot_library.dtos.CompactPageDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.CursorPageDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.idempotency.IdempotencyFilter;
+import carreiras.com.github.java_spring_boot_library.mappers.BookMapper;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
 import carreiras.com.github.java_spring_boot_library.services.BookService;
 import carreiras.com.github.java_spring_boot_library.services.LoanService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -38,26 +68,36 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/books")
 @Tag(name = "Books", description = "API responsible for book maintenance.")
 public class BookController {
 
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
     private final BookService bookService;
     private final LoanService loanService;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
+    private final LoanMapper loanMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @GetMapping("/{id}")
     @Operation(summary = "Get details of a book by id.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Book details successfully obtained."),
+            @ApiResponse(responseCode = "304", description = "Book unchanged since the informed ETag or date."),
             @ApiResponse(responseCode = "400", description = "Failed to get book details.")
     })
-    public BookDTO get(@PathVariable Long id) {
+    public BookDTO get(@PathVariable Long id, WebRequest webRequest) {
         log.info("obtaining details for book id: {}", id);
-        return bookService.getById(id)
-                .map(book -> modelMapper.map(book, BookDTO.class))
+        Book book = bookService.getById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND));
+        if (ETags.notModified(webRequest, book.getVersion(), book.getUpdatedAt()))
+            return null;
+
+        return bookMapper.toDTO(book);
     }
 
     @PostMapping
@@ -65,33 +105,69 @@ public class BookController {
     @Operation(summary = "Create a book.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Book created successfully."),
-            @ApiResponse(responseCode = "400", description = "Failed to create book.")
+            @ApiResponse(responseCode = "400", description = "Failed to create book."),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress."),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with another body.")
     })
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+            description = "Retries with the same key receive the original response.")
     public BookDTO create(@RequestBody @Valid BookDTO request) {
         log.info("creating a book for isbn: {}", request.getIsbn());
-        Book book = modelMapper.map(request, Book.class);
+        Book book = bookMapper.toEntity(request);
         Book bookSaved = bookService.save(book);
-        BookDTO bookDTO = modelMapper.map(bookSaved, BookDTO.class);
+        BookDTO bookDTO = bookMapper.toDTO(bookSaved);
 
         return bookDTO;
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create books in bulk from a JSON array.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books processed, with the result of each item."),
+            @ApiResponse(responseCode = "400", description = "Failed to read the books.")
+    })
+    public List<BookImportResultDTO> createBatch(@RequestBody List<BookDTO> request) {
+        log.info("creating {} books in batch", request.size());
+        return importBooks(request.iterator());
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create books in bulk from newline-delimited JSON.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books processed, with the result of each item."),
+            @ApiResponse(responseCode = "400", description = "Failed to read the books.")
+    })
+    public List<BookImportResultDTO> createBatchStream(InputStream request) throws IOException {
+        log.info("creating books in batch from stream");
+        try {
+            return importBooks(objectMapper.readerFor(BookDTO.class).readValues(request));
+        } catch (RuntimeJsonMappingException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a book.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Book successfully updated."),
-            @ApiResponse(responseCode = "400", description = "Failed to update book.")
+            @ApiResponse(responseCode = "400", description = "Failed to update book."),
+            @ApiResponse(responseCode = "409", description = "Book changed by a concurrent request."),
+            @ApiResponse(responseCode = "412", description = "Book changed since the ETag informed in If-Match.")
     })
-    public BookDTO update(@PathVariable Long id, @RequestBody @Valid BookDTO request) {
+    public ResponseEntity<BookDTO> update(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid BookDTO request) {
         log.info("updating book of id: {}", id);
-        return bookService.getById(id)
-                .map(book -> {
-                    book.setAutor(request.getAutor());
-                    book.setTitle(request.getTitle());
-                    book = bookService.update(book);
-                    return modelMapper.map(book, BookDTO.class);
-                })
+        Book book = bookService.getById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND));
+        ETags.checkMatch(ifMatch, book.getVersion());
+
+        book.setAutor(request.getAutor());
+        book.setTitle(request.getTitle());
+        Book updatedBook = bookService.update(book);
+
+        return ETags.ok(updatedBook.getVersion(), updatedBook.getUpdatedAt())
+                .body(bookMapper.toDTO(updatedBook));
     }
 
     @DeleteMapping("/{id}")
@@ -99,12 +175,16 @@ public class BookController {
     @Operation(summary = "Delete a book.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Successfully deleted book."),
-            @ApiResponse(responseCode = "400", description = "failed to delete book.")
+            @ApiResponse(responseCode = "400", description = "failed to delete book."),
+            @ApiResponse(responseCode = "409", description = "Book changed by a concurrent request."),
+            @ApiResponse(responseCode = "412", description = "Book changed since the ETag informed in If-Match.")
     })
-    public void delete(@PathVariable Long id) {
+    public void delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("deleting book of id: {}", id);
         Book book = bookService.getById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND));
+        ETags.checkMatch(ifMatch, book.getVersion());
         bookService.delete(book);
     }
 
@@ -115,16 +195,73 @@ public class BookController {
             @ApiResponse(responseCode = "400", description = "Failed to find books by parameters.")
     })
     public Page<BookDTO> find(BookDTO bookDTO, Pageable pageRequest) {
-        Book filter = modelMapper.map(bookDTO, Book.class);
+        Book filter = bookMapper.toEntity(bookDTO);
         Page<Book> result = bookService.find(filter, pageRequest);
         List<BookDTO> list = result.getContent()
                 .stream()
-                .map(entity -> modelMapper.map(entity, BookDTO.class))
+                .map(bookMapper::toDTO)
+                .collect(Collectors.toList());
+
+        return new PageImpl<BookDTO>(list, pageRequest, result.getTotalElements());
+    }
+
+    @GetMapping(params = {"fields", "!q", "!cursor"})
+    @Operation(summary = "Find books by params, returning only the informed fields in a compact page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Find books by parameters successfully obtained."),
+            @ApiResponse(responseCode = "400", description = "Failed to find books by parameters or unknown field.")
+    })
+    public CompactPageDTO<Map<String, Object>> findFields(BookDTO bookDTO,
+            @Parameter(description = "Comma-separated BookDTO properties, e.g. id,title.")
+            @RequestParam List<String> fields,
+            Pageable pageRequest) {
+        Book filter = bookMapper.toEntity(bookDTO);
+        return CompactPageDTO.of(bookService.find(filter, fields, pageRequest));
+    }
+
+    @GetMapping(params = {"q", "!cursor"})
+    @Operation(summary = "Search books by terms of title and author, most relevant first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book search successfully obtained."),
+            @ApiResponse(responseCode = "400", description = "Failed to search books.")
+    })
+    public Page<BookDTO> search(@RequestParam("q") String query, Pageable pageRequest) {
+        Page<Book> result = bookService.search(query, pageRequest);
+        List<BookDTO> list = result.getContent()
+                .stream()
+                .map(bookMapper::toDTO)
                 .collect(Collectors.toList());
 
         return new PageImpl<BookDTO>(list, pageRequest, result.getTotalElements());
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Find books by params using keyset pagination.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Find books by parameters successfully obtained."),
+            @ApiResponse(responseCode = "400", description = "Failed to find books by parameters.")
+    })
+    public CursorPageDTO<BookDTO> findByCursor(BookDTO bookDTO,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Book filter = bookMapper.toEntity(bookDTO);
+        Slice<Book> result = bookService.find(filter, Cursors.decode(cursor), Cursors.size(size));
+
+        return Cursors.page(result, Book::getId, bookMapper::toDTO);
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Check whether a book is available for loan.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book availability successfully obtained."),
+            @ApiResponse(responseCode = "404", description = "Book not found.")
+    })
+    public BookAvailabilityDTO availability(@PathVariable Long id) {
+        return bookService.isAvailable(id)
+                .map(available -> BookAvailabilityDTO.builder().id(id).available(available).build())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
     @GetMapping("/{id}/loans")
     @Operation(summary = "Search loans by book id.")
     @ApiResponses(value = {
@@ -137,13 +274,84 @@ public class BookController {
         Page<Loan> result = loanService.getLoansByBook(book, pageable);
         List<LoanDTO> list = result.getContent()
                 .stream()
-                .map(loan -> {
-                    Book loanBook = loan.getBook();
-                    BookDTO bookDTO = modelMapper.map(loanBook, BookDTO.class);
-                    LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
-                    loanDTO.setBook(bookDTO);
-                    return loanDTO;
-                }).collect(Collectors.toList());
+                .map(loanMapper::toDTO)
+                .collect(Collectors.toList());
         return new PageImpl<LoanDTO>(list, pageable, result.getTotalElements());
     }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all books as newline-delimited JSON.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book export successfully streamed.")
+    })
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonStreams.of(objectMapper,
+                consumer -> bookService.exportAll(book -> consumer.accept(bookMapper.toDTO(book))));
+    }
+
+    private List<BookImportResultDTO> importBooks(Iterator<BookDTO> books) {
+        List<BookImportResultDTO> results = new ArrayList<>();
+        List<BookImportResultDTO> pending = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Book> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+        for (int index = 0; books.hasNext(); index++) {
+            BookDTO bookDTO = books.next();
+            BookImportResultDTO result = BookImportResultDTO.builder()
+                    .index(index)
+                    .isbn(bookDTO.getIsbn())
+                    .build();
+            results.add(result);
+
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+            if (!violations.isEmpty()) {
+                result.setStatus(Status.INVALID);
+                result.setMessage(violations.iterator().next().getMessage());
+                continue;
+            }
+
+            pending.add(result);
+            chunk.add(bookMapper.toEntity(bookDTO));
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                saveChunk(chunk, pending);
+            }
+        }
+        saveChunk(chunk, pending);
+
+        return results;
+    }
+
+    /**
+     * Se outra importação gravou um dos isbns entre a consulta dos
+     * existentes e o insert, o lote inteiro é desfeito; os livros do lote
+     * são então gravados um a um para que só os repetidos fiquem de fora.
+     */
+    private void saveChunk(List<Book> chunk, List<BookImportResultDTO> pending) {
+        try {
+            bookService.saveAll(chunk);
+        } catch (BusinessException ex) {
+            chunk.forEach(this::saveImported);
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            Long id = chunk.get(i).getId();
+            pending.get(i).setId(id);
+            if (id != null) {
+                pending.get(i).setStatus(Status.CREATED);
+            } else {
+                pending.get(i).setStatus(Status.DUPLICATED);
+                pending.get(i).setMessage("ISBN já cadastrado.");
+            }
+        }
+        chunk.clear();
+        pending.clear();
+    }
+
+    private void saveImported(Book book) {
+        book.setId(null);
+        book.setVersion(null);
+        try {
+            bookService.save(book);
+        } catch (BusinessException ex) {
+            book.setId(null);
+        }
+    }
 }
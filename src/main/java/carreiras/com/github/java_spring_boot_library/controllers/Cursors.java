@@ -0,0 +1,65 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.web.server.ResponseStatusException;
+
+import carreiras.com.github.java_spring_boot_library.dtos.CursorPageDTO;
+
+/**
+ * Cursores opacos da paginação por chave: codificam o último id da página
+ * anterior. Cursor vazio indica a primeira página.
+ */
+final class Cursors {
+
+    static final long FIRST_PAGE = 0L;
+
+    static final int MAX_SIZE = 100;
+
+    private Cursors() {
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return FIRST_PAGE;
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(value);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Tamanho da página pedido pelo cliente, entre 1 e {@link #MAX_SIZE}:
+     * o serviço busca size + 1 linhas para saber se há próxima página.
+     */
+    static int size(int size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new ResponseStatusException(BAD_REQUEST, "Page size must be between 1 and " + MAX_SIZE);
+
+        return size;
+    }
+
+    static String encode(long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <E, D> CursorPageDTO<D> page(Slice<E> slice, Function<E, Long> idOf, Function<E, D> mapper) {
+        List<E> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? encode(idOf.apply(content.get(content.size() - 1)))
+                : null;
+
+        return new CursorPageDTO<>(slice.map(mapper).getContent(), nextCursor);
+    }
+}
@@ -0,0 +1,60 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+import java.time.Instant;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * ETags fortes derivadas da coluna de versão das entidades: a versão muda a
+ * cada update, então a mesma versão sempre produz a mesma representação.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Preenche ETag e Last-Modified da resposta e diz se o cliente já tem
+     * esta versão (If-None-Match ou If-Modified-Since); nesse caso a
+     * resposta já está marcada como 304 e o controller não precisa montar
+     * o corpo.
+     */
+    static boolean notModified(WebRequest request, Long version, Instant lastModified) {
+        return request.checkNotModified(of(version), lastModified == null ? -1 : lastModified.toEpochMilli());
+    }
+
+    /**
+     * Valida o If-Match de PUT e DELETE: sem cabeçalho, com "*" ou com a
+     * ETag atual entre as informadas o pedido segue; caso contrário o
+     * cliente alteraria uma versão que já não é a atual.
+     */
+    static void checkMatch(String ifMatch, Long version) {
+        if (ifMatch == null)
+            return;
+
+        String current = of(version);
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || candidate.equals(current))
+                return;
+        }
+        throw new ResponseStatusException(PRECONDITION_FAILED, "Resource was modified, reload it and try again");
+    }
+
+    static ResponseEntity.BodyBuilder ok(Long version, Instant lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null)
+            builder.eTag(of(version));
+        if (lastModified != null)
+            builder.lastModified(lastModified);
+        return builder;
+    }
+}
@@ -1,81 +1,113 @@
 package carreiras.com.github.java_spring_boot_library.controllers;
 
-import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
-import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
+import javax.validation.Valid;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.CompactPageDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.CursorPageDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoanDTO;
-import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoansDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
-import carreiras.com.github.java_spring_boot_library.services.BookService;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.idempotency.IdempotencyFilter;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
 import carreiras.com.github.java_spring_boot_library.services.LoanService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/loans")
 @Tag(name = "Loans", description = "API responsible for maintaining book loans.")
 public class LoanController {
 
-    private final BookService bookService;
+    static final String ONLY_RETURN_MESSAGE = "Only returned=true is supported";
+
     private final LoanService loanService;
-    private final ModelMapper modelMapper;
+    private final LoanMapper loanMapper;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "borrow a book.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Successful loan."),
-            @ApiResponse(responseCode = "400", description = "Failure to take out the loan.")
+            @ApiResponse(responseCode = "400", description = "Failure to take out the loan."),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress."),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with another body.")
     })
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+            description = "Retries with the same key receive the original response.")
     public Long create(@RequestBody LoanDTO loanDTO) {
-        Book book = bookService.getBookByIsbn(loanDTO.getIsbn())
-                .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "Book not found for passed isbn"));
-        Loan entity = Loan.builder()
-                .book(book)
-                .customer(loanDTO.getCustomer())
-                .loanDate(LocalDate.now())
-                .build();
-        entity = loanService.save(entity);
+        Loan entity = loanService.checkout(loanDTO.getIsbn(), loanDTO.getCustomer(), loanDTO.getEmail());
 
         return entity.getId();
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Get loan details by id.")
+    @Operation(summary = "Return a borrowed book.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Loan details successfully obtained."),
-            @ApiResponse(responseCode = "400", description = "Failed to get loan details.")
+            @ApiResponse(responseCode = "200", description = "Loan successfully returned."),
+            @ApiResponse(responseCode = "400", description = "Only returned=true is accepted."),
+            @ApiResponse(responseCode = "404", description = "Loan not found.")
     })
     public void returnBook(@PathVariable Long id, @RequestBody ReturnedLoanDTO returnedLoanDTO) {
-        Loan loan = loanService.getById(id).orElseThrow(() -> new ResponseStatusException(NOT_FOUND));
-        loan.setReturned(returnedLoanDTO.getReturned());
-        loanService.update(loan);
+        if (!Boolean.TRUE.equals(returnedLoanDTO.getReturned()))
+            throw new BusinessException(ONLY_RETURN_MESSAGE);
+
+        if (loanService.returnLoans(List.of(id)) == 0)
+            throw new ResponseStatusException(NOT_FOUND);
+    }
+
+    @PatchMapping("/batch")
+    @Operation(summary = "Return many borrowed books at once.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loans returned; returned counts the ids that existed."),
+            @ApiResponse(responseCode = "400", description = "No ids or more ids than allowed.")
+    })
+    public ReturnedLoansDTO returnBooks(@RequestBody @Valid ReturnedLoansDTO returnedLoansDTO) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(returnedLoansDTO.getIds()));
+
+        return ReturnedLoansDTO.builder()
+                .ids(ids)
+                .returned(loanService.returnLoans(ids))
+                .build();
     }
 
     @GetMapping
@@ -87,16 +119,44 @@ public class LoanController {
         Page<Loan> result = loanService.find(filter, pageRequest);
         List<LoanDTO> list = result.getContent()
                 .stream()
-                .map(entity -> {
-                    Book book = entity.getBook();
-                    BookDTO bookDTO = modelMapper.map(book, BookDTO.class);
-                    LoanDTO loanDTO = modelMapper.map(entity, LoanDTO.class);
-                    loanDTO.setBook(bookDTO);
-
-                    return loanDTO;
-                })
+                .map(loanMapper::toDTO)
                 .collect(Collectors.toList());
 
         return new PageImpl<LoanDTO>(list, pageRequest, result.getTotalElements());
     }
+
+    @GetMapping(params = {"fields", "!cursor"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Find loans by parameters successfully obtained."),
+            @ApiResponse(responseCode = "400", description = "Failed to find loans by parameters or unknown field.")
+    })
+    public CompactPageDTO<Map<String, Object>> findFields(LoanFilterDTO filter,
+            @Parameter(description = "Comma-separated LoanDTO properties, e.g. id,customer,book.title.")
+            @RequestParam List<String> fields,
+            Pageable pageRequest) {
+        return CompactPageDTO.of(loanService.find(filter, fields, pageRequest));
+    }
+
+    @GetMapping(params = "cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Find loans by parameters successfully obtained."),
+            @ApiResponse(responseCode = "400", description = "Failed to find loans by parameters.")
+    })
+    public CursorPageDTO<LoanDTO> findByCursor(LoanFilterDTO filter,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<Loan> result = loanService.find(filter, Cursors.decode(cursor), Cursors.size(size));
+
+        return Cursors.page(result, Loan::getId, loanMapper::toDTO);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all loans as newline-delimited JSON.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loan export successfully streamed.")
+    })
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonStreams.of(objectMapper,
+                consumer -> loanService.exportAll(loan -> consumer.accept(loanMapper.toDTO(loan))));
+    }
 }
@@ -0,0 +1,48 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Escreve JSON delimitado por quebra de linha à medida que os registros
+ * são produzidos, sem acumular a resposta em memória.
+ */
+final class NdjsonStreams {
+
+    private static final int NEW_LINE = '\n';
+
+    private NdjsonStreams() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out);
+            source.accept(value -> writeLine(writer, buffered, value));
+            buffered.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static void writeLine(ObjectWriter writer, OutputStream out, Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write(NEW_LINE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
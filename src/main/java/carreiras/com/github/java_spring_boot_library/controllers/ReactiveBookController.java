@@ -0,0 +1,176 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Valid;
+import javax.validation.Validator;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookAvailabilityDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.BookImportResultDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.BookImportResultDTO.Status;
+import carreiras.com.github.java_spring_boot_library.dtos.CursorPageDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.mappers.BookMapper;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão não bloqueante de {@link BookController}, com os mesmos caminhos e
+ * DTOs, ativa no perfil "reactive".
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+    private final ReactiveBookService bookService;
+    private final ReactiveLoanService loanService;
+    private final BookMapper bookMapper;
+    private final LoanMapper loanMapper;
+    private final Validator validator;
+
+    @GetMapping("/{id}")
+    public Mono<BookDTO> get(@PathVariable Long id) {
+        log.info("obtaining details for book id: {}", id);
+        return bookService.getById(id)
+                .map(bookMapper::toDTO)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> create(@RequestBody @Valid BookDTO request) {
+        log.info("creating a book for isbn: {}", request.getIsbn());
+        return bookService.save(bookMapper.toRow(request))
+                .map(bookMapper::toDTO);
+    }
+
+    /**
+     * Aceita um array JSON ou NDJSON; os livros são lidos e gravados um a um,
+     * conforme chegam.
+     */
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<BookImportResultDTO> createBatch(@RequestBody Flux<BookDTO> request) {
+        return request.index()
+                .concatMap(item -> importBook(item.getT1().intValue(), item.getT2()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<BookDTO> update(@PathVariable Long id, @RequestBody @Valid BookDTO request) {
+        log.info("updating book of id: {}", id);
+        return bookService.getById(id)
+                .flatMap(book -> {
+                    book.setAutor(request.getAutor());
+                    book.setTitle(request.getTitle());
+                    return bookService.update(book);
+                })
+                .map(bookMapper::toDTO)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable Long id) {
+        log.info("deleting book of id: {}", id);
+        return bookService.getById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)))
+                .flatMap(bookService::delete);
+    }
+
+    @GetMapping
+    public Mono<Page<BookDTO>> find(BookDTO bookDTO, Pageable pageRequest) {
+        return bookService.find(bookMapper.toRow(bookDTO), pageRequest)
+                .map(result -> result.map(bookMapper::toDTO));
+    }
+
+    @GetMapping(params = {"q", "!cursor"})
+    public Mono<Page<BookDTO>> search(@RequestParam("q") String query, Pageable pageRequest) {
+        return bookService.search(query, pageRequest)
+                .map(result -> result.map(bookMapper::toDTO));
+    }
+
+    @GetMapping(params = "cursor")
+    public Mono<CursorPageDTO<BookDTO>> findByCursor(BookDTO bookDTO,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return bookService.find(bookMapper.toRow(bookDTO), Cursors.decode(cursor), Cursors.size(size))
+                .map(result -> Cursors.page(result, BookRow::getId, bookMapper::toDTO));
+    }
+
+    @GetMapping("/{id}/availability")
+    public Mono<BookAvailabilityDTO> availability(@PathVariable Long id) {
+        return bookService.isAvailable(id)
+                .map(available -> BookAvailabilityDTO.builder().id(id).available(available).build())
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)));
+    }
+
+    @GetMapping("/{id}/loans")
+    public Mono<Page<LoanDTO>> loansByBook(@PathVariable Long id, Pageable pageable) {
+        return bookService.getById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)))
+                .flatMap(book -> loanService.getLoansByBook(book.getId(), pageable))
+                .map(result -> result.map(loanMapper::toDTO));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookDTO> export() {
+        return bookService.exportAll()
+                .map(bookMapper::toDTO);
+    }
+
+    private Mono<BookImportResultDTO> importBook(int index, BookDTO bookDTO) {
+        BookImportResultDTO result = BookImportResultDTO.builder()
+                .index(index)
+                .isbn(bookDTO.getIsbn())
+                .build();
+
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+        if (!violations.isEmpty()) {
+            result.setStatus(Status.INVALID);
+            result.setMessage(violations.iterator().next().getMessage());
+            return Mono.just(result);
+        }
+
+        return bookService.save(bookMapper.toRow(bookDTO))
+                .map(book -> {
+                    result.setId(book.getId());
+                    result.setStatus(Status.CREATED);
+                    return result;
+                })
+                .onErrorResume(BusinessException.class, ex -> {
+                    result.setStatus(Status.DUPLICATED);
+                    result.setMessage("ISBN já cadastrado.");
+                    return Mono.just(result);
+                });
+    }
+}
@@ -0,0 +1,112 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import javax.validation.Valid;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import carreiras.com.github.java_spring_boot_library.dtos.CursorPageDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoansDTO;
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.mappers.LoanMapper;
+import carreiras.com.github.java_spring_boot_library.services.LoanService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão não bloqueante de {@link LoanController}, com os mesmos caminhos e
+ * DTOs, ativa no perfil "reactive".
+ */
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/loans")
+public class ReactiveLoanController {
+
+    private final ReactiveBookService bookService;
+    private final ReactiveLoanService loanService;
+    private final LoanMapper loanMapper;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Long> create(@RequestBody LoanDTO loanDTO) {
+        return bookService.getBookByIsbn(loanDTO.getIsbn())
+                .switchIfEmpty(Mono.error(() -> new BusinessException(LoanService.BOOK_NOT_FOUND_MESSAGE)))
+                .flatMap(book -> loanService.save(LoanRow.builder()
+                        .bookId(book.getId())
+                        .customer(loanDTO.getCustomer())
+                        .customerEmail(loanDTO.getEmail())
+                        .loanDate(LocalDate.now())
+                        .build()))
+                .map(LoanRow::getId);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<Void> returnBook(@PathVariable Long id, @RequestBody ReturnedLoanDTO returnedLoanDTO) {
+        if (!Boolean.TRUE.equals(returnedLoanDTO.getReturned()))
+            return Mono.error(new BusinessException(LoanController.ONLY_RETURN_MESSAGE));
+
+        return loanService.returnLoans(List.of(id))
+                .filter(returned -> returned > 0)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND)))
+                .then();
+    }
+
+    @PatchMapping("/batch")
+    public Mono<ReturnedLoansDTO> returnBooks(@RequestBody @Valid ReturnedLoansDTO returnedLoansDTO) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(returnedLoansDTO.getIds()));
+
+        return loanService.returnLoans(ids)
+                .map(returned -> ReturnedLoansDTO.builder()
+                        .ids(ids)
+                        .returned(returned)
+                        .build());
+    }
+
+    @GetMapping
+    public Mono<Page<LoanDTO>> find(LoanFilterDTO filter, Pageable pageRequest) {
+        return loanService.find(filter, pageRequest)
+                .map(result -> result.map(loanMapper::toDTO));
+    }
+
+    @GetMapping(params = "cursor")
+    public Mono<CursorPageDTO<LoanDTO>> findByCursor(LoanFilterDTO filter,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return loanService.find(filter, Cursors.decode(cursor), Cursors.size(size))
+                .map(result -> Cursors.page(result, LoanView::getId, loanMapper::toDTO));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LoanDTO> export() {
+        return loanService.exportAll()
+                .map(loanMapper::toDTO);
+    }
+}
@@ -0,0 +1,70 @@
+package carreiras.com.github.java_spring_boot_library.datasource;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+
+/**
+ * Abre as conexões das transações somente leitura na réplica e as demais na
+ * primária. A escolha acontece quando a conexão física é aberta, por isso
+ * este DataSource fica atrás de um LazyConnectionDataSourceProxy: o
+ * JpaTransactionManager pede a conexão antes de marcar a transação como
+ * somente leitura, mas o proxy só a abre no primeiro comando. Enquanto a
+ * réplica não estiver em dia (ver {@link ReplicaLagMonitor}) as leituras
+ * também vão para a primária, assim como as conexões abertas dentro de
+ * {@link #readFromPrimary}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_READ = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final LibraryMetrics metrics;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+            LibraryMetrics metrics) {
+        this.lagMonitor = lagMonitor;
+        this.metrics = metrics;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Executa a leitura com as conexões abertas nela indo para a primária,
+     * ainda que em transação somente leitura. Não muda a conexão de uma
+     * transação que já a tenha aberto antes do bloco.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_READ.get();
+        PRIMARY_READ.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null)
+                PRIMARY_READ.remove();
+            else
+                PRIMARY_READ.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_READ.get() != null)
+            return Target.PRIMARY;
+
+        Target target = lagMonitor.isReplicaUsable() ? Target.REPLICA : Target.PRIMARY;
+        metrics.readRouted(target.name().toLowerCase());
+        return target;
+    }
+}
@@ -0,0 +1,90 @@
+package carreiras.com.github.java_spring_boot_library.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mede o atraso da réplica por um heartbeat: a cada intervalo grava o
+ * instante atual na tabela replication_heartbeat da primária e lê da réplica
+ * o último instante que a replicação trouxe. O atraso medido inclui até um
+ * intervalo de heartbeat, então max-lag deve ser maior que ele. A réplica só
+ * recebe leituras depois de uma medição dentro do limite; atraso acima dele
+ * ou erro ao consultá-la devolvem as leituras à primária até a próxima
+ * medição boa.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String HEARTBEAT_TABLE = "create table if not exists replication_heartbeat " +
+            "(id int primary key, beat_at bigint not null)";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Clock clock;
+
+    private boolean heartbeatCreated;
+    private volatile boolean replicaUsable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Clock clock) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.replica.heartbeat-millis:1000}")
+    public synchronized void check() {
+        long now = clock.millis();
+        try {
+            beat(now);
+        } catch (DataAccessException e) {
+            log.warn("could not write replication heartbeat on the primary: {}", e.getMessage());
+        }
+
+        boolean usable;
+        try {
+            Long replicated = replica.queryForObject("select beat_at from replication_heartbeat where id = 1", Long.class);
+            lagMillis = replicated == null ? -1 : now - replicated;
+            usable = replicated != null && lagMillis <= maxLag.toMillis();
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            usable = false;
+        }
+
+        if (usable != replicaUsable)
+            log.info("replica {} for reads (lag {} ms, max {} ms)",
+                    usable ? "enabled" : "disabled", lagMillis, maxLag.toMillis());
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Último atraso medido em milissegundos, ou -1 se a réplica não pôde ser
+     * consultada.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    private void beat(long now) {
+        if (!heartbeatCreated) {
+            primary.execute(HEARTBEAT_TABLE);
+            heartbeatCreated = true;
+        }
+        if (primary.update("update replication_heartbeat set beat_at = ? where id = 1", now) == 0)
+            primary.update("insert into replication_heartbeat (id, beat_at) values (1, ?)", now);
+    }
+}
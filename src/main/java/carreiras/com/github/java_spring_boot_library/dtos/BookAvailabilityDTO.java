@@ -0,0 +1,16 @@
+package carreiras.com.github.java_spring_boot_library.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailabilityDTO {
+
+    private Long id;
+    private boolean available;
+}
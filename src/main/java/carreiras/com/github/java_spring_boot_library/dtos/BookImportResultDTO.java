@@ -0,0 +1,23 @@
+package carreiras.com.github.java_spring_boot_library.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+
+    public enum Status {
+        CREATED, DUPLICATED, INVALID
+    }
+
+    private int index;
+    private String isbn;
+    private Long id;
+    private Status status;
+    private String message;
+}
@@ -1,5 +1,7 @@
 package carreiras.com.github.java_spring_boot_library.dtos;
 
+import java.time.LocalDate;
+
 import javax.validation.constraints.NotEmpty;
 
 import lombok.AllArgsConstructor;
@@ -23,5 +25,6 @@ public class LoanDTO {
 
     @NotEmpty
     private String email;
+    private LocalDate dueDate;
     private BookDTO book;
 }
@@ -1,10 +1,20 @@
 package carreiras.com.github.java_spring_boot_library.dtos;
 
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Filtros da busca de empréstimos; os informados são combinados com "e" e os
+ * nulos não filtram. O período é da data de retirada, com os dois extremos
+ * inclusos, e returned=false também traz os empréstimos sem a marcação.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,4 +23,12 @@ public class LoanFilterDTO {
 
     private String isbn;
     private String customer;
+
+    @DateTimeFormat(iso = ISO.DATE)
+    private LocalDate loanDateFrom;
+
+    @DateTimeFormat(iso = ISO.DATE)
+    private LocalDate loanDateTo;
+
+    private Boolean returned;
 }
@@ -0,0 +1,31 @@
+package carreiras.com.github.java_spring_boot_library.dtos;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReturnedLoansDTO {
+
+    public static final int MAX_IDS = 1000;
+
+    @NotEmpty(message = "Empréstimos devem ser informados!")
+    @Size(max = MAX_IDS, message = "No máximo " + MAX_IDS + " empréstimos por devolução!")
+    private List<@NotNull Long> ids;
+
+    /**
+     * Quantos dos empréstimos informados existiam e foram marcados como
+     * devolvidos; só preenchido na resposta.
+     */
+    private Integer returned;
+}
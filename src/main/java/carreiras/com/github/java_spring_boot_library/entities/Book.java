@@ -1,5 +1,6 @@
 package carreiras.com.github.java_spring_boot_library.entities;
 
+import java.time.Instant;
 import java.util.List;
 
 import javax.persistence.Column;
@@ -8,7 +9,12 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.UpdateTimestamp;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,16 +22,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.ISBN_UNIQUE_CONSTRAINT, columnNames = "isbn"))
 @Entity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
 
+    public static final String ISBN_UNIQUE_CONSTRAINT = "uk_book_isbn";
+
     @Id
     @Column
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @Column
@@ -37,6 +46,26 @@ public class Book {
     @Column
     private String isbn;
 
+    /**
+     * Incrementada a cada update da entidade: trava otimista para as
+     * alterações e ETag forte da representação do livro.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+
+    /**
+     * Empréstimo em aberto do livro, ou nulo se ele está disponível. Só é
+     * alterado pelos updates condicionais de BookRepository (reserve/release),
+     * nunca pela entidade, para que um Book desatualizado não o sobrescreva.
+     */
+    @Column(name = "active_loan_id", insertable = false, updatable = false)
+    private Long activeLoanId;
+
     @OneToMany(mappedBy = "book")
     private List<Loan> loans;
 }
@@ -0,0 +1,38 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha da tabela book vista pelo R2DBC, usada pela variante reativa da API.
+ * O esquema continua sendo o de {@link Book}.
+ */
+@Data
+@Table("book")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRow {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String autor;
+
+    private String isbn;
+
+    private Long version;
+
+    private LocalDateTime updatedAt;
+
+    private Long activeLoanId;
+}
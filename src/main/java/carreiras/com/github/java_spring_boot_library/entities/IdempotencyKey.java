@@ -0,0 +1,46 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Chave de idempotência compartilhada entre as instâncias da aplicação. A
+ * chave primária garante que só um pedido a reserve; status, tipo e corpo
+ * da resposta ficam vazios até ele terminar com sucesso.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "id_key", length = 200)
+    private String key;
+
+    @Column(length = 32)
+    private String fingerprint;
+
+    @Column
+    private Instant createdAt;
+
+    @Column
+    private Integer status;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Lob
+    @Column
+    private byte[] body;
+}
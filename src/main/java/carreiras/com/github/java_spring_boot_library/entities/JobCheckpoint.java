@@ -0,0 +1,41 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progresso de um job em lotes: data de referência da execução, primeiro
+ * dia coberto por ela, último id processado e se ela terminou. Permite
+ * retomar uma execução interrompida a partir do último lote concluído.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String job;
+
+    @Column
+    private LocalDate runDate;
+
+    @Column
+    private LocalDate dueFrom;
+
+    @Column
+    private Long lastId;
+
+    @Column
+    private Boolean finished;
+}
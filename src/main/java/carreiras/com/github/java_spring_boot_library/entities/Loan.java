@@ -4,11 +4,14 @@ import java.time.LocalDate;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +20,12 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_loan_book_returned", columnList = "id_book, returned"),
+        @Index(name = "idx_loan_book_customer", columnList = "id_book, customer"),
+        @Index(name = "idx_loan_customer_loan_date", columnList = "customer, loanDate"),
+        @Index(name = "idx_loan_due_date_returned", columnList = "dueDate, returned")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,13 +42,16 @@ public class Loan {
     @Column(name = "customer_email")
     private String customerEmail;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_book")
     private Book book;
 
     @Column
     private LocalDate loanDate;
 
+    @Column
+    private LocalDate dueDate;
+
     @Column
     private Boolean returned;
 }
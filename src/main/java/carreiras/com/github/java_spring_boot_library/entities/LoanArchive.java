@@ -0,0 +1,54 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Empréstimo devolvido que saiu da tabela loan pelo job de arquivamento. Mantém
+ * o id original e as colunas do empréstimo; todo empréstimo arquivado foi
+ * devolvido, então não há coluna returned.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_loan_archive_book", columnList = "id_book, id"))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanArchive {
+
+    @Id
+    @Column
+    private Long id;
+
+    @Column(length = 100)
+    private String customer;
+
+    @Column(name = "customer_email")
+    private String customerEmail;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_book")
+    private Book book;
+
+    @Column
+    private LocalDate loanDate;
+
+    @Column
+    private LocalDate dueDate;
+
+    @Column
+    private LocalDate archivedOn;
+}
@@ -0,0 +1,40 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha da tabela loan vista pelo R2DBC, usada pela variante reativa da API.
+ * O esquema continua sendo o de {@link Loan}.
+ */
+@Data
+@Table("loan")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanRow {
+
+    @Id
+    private Long id;
+
+    private String customer;
+
+    private String customerEmail;
+
+    @Column("id_book")
+    private Long bookId;
+
+    private LocalDate loanDate;
+
+    private LocalDate dueDate;
+
+    private Boolean returned;
+}
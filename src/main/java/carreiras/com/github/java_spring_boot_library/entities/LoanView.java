@@ -0,0 +1,39 @@
+package carreiras.com.github.java_spring_boot_library.entities;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Empréstimo junto com os dados do livro, lidos numa única consulta com join
+ * pela variante reativa da API.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanView {
+
+    private Long id;
+
+    private String customer;
+
+    private String customerEmail;
+
+    private LocalDate loanDate;
+
+    private LocalDate dueDate;
+
+    private Boolean returned;
+
+    private Long bookId;
+
+    private String title;
+
+    private String autor;
+
+    private String isbn;
+}
@@ -0,0 +1,74 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import carreiras.com.github.java_spring_boot_library.datasource.ReadWriteRoutingDataSource;
+import carreiras.com.github.java_spring_boot_library.entities.IdempotencyKey;
+import carreiras.com.github.java_spring_boot_library.repositories.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chaves de idempotência na tabela idempotency_key, para quando a aplicação
+ * roda em mais de uma instância. A chave é procurada pela chave primária e,
+ * se não existe, reservada pelo insert; se duas instâncias a inserem ao
+ * mesmo tempo, a chave primária deixa só uma vencer. Chaves expiradas são
+ * apagadas ao serem reencontradas e periodicamente.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Override
+    public Optional<IdempotencyRecord> begin(String key, String fingerprint) {
+        Instant limit = clock.instant().minus(ttl);
+        // a réplica pode ainda não ter a reserva feita por outra instância
+        Optional<IdempotencyKey> existing = ReadWriteRoutingDataSource.readFromPrimary(() -> repository.findById(key));
+        if (existing.isPresent()) {
+            if (!existing.get().getCreatedAt().isBefore(limit))
+                return existing.map(this::toRecord);
+            repository.deleteExpired(key, limit);
+        }
+
+        try {
+            repository.insert(key, fingerprint, clock.instant());
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // outra instância reservou a chave entre a leitura e o insert
+            return begin(key, fingerprint);
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        repository.complete(key, response.getStatus(), response.getContentType(), response.getBody());
+    }
+
+    @Override
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    @Scheduled(fixedDelayString = "${application.idempotency.purge-millis:600000}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(clock.instant().minus(ttl));
+        log.debug("{} expired idempotency keys purged", purged);
+    }
+
+    private IdempotencyRecord toRecord(IdempotencyKey entity) {
+        IdempotentResponse response = entity.getStatus() == null
+                ? null
+                : new IdempotentResponse(entity.getStatus(), entity.getContentType(), entity.getBody());
+        return new IdempotencyRecord(entity.getFingerprint(), response);
+    }
+}
@@ -0,0 +1,177 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import carreiras.com.github.java_spring_boot_library.exceptions.ApiErrors;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Torna idempotentes os POSTs que trazem o cabeçalho Idempotency-Key. O
+ * primeiro pedido com a chave é executado e, se tiver sucesso, a resposta
+ * fica guardada no {@link IdempotencyStore}; repetições com a mesma chave e
+ * o mesmo corpo recebem essa resposta sem chegar ao controller. A chave
+ * vale por método e caminho. Uma repetição que chega enquanto o original
+ * ainda executa recebe 409, e a mesma chave com outro corpo recebe 422.
+ */
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final LibraryMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String fingerprint = DigestUtils.md5DigestAsHex(body);
+
+        Optional<IdempotencyRecord> existing = store.begin(key, fingerprint);
+        if (existing.isPresent()) {
+            answer(existing.get(), fingerprint, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            if (HttpStatus.Series.resolve(cachingResponse.getStatus()) == HttpStatus.Series.SUCCESSFUL) {
+                store.complete(key, new IdempotentResponse(
+                        cachingResponse.getStatus(),
+                        cachingResponse.getContentType(),
+                        cachingResponse.getContentAsByteArray()));
+                completed = true;
+                metrics.idempotentRequest(LibraryMetrics.EXECUTED);
+            }
+        } finally {
+            if (!completed)
+                store.release(key);
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void answer(IdempotencyRecord record, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            metrics.idempotentRequest(LibraryMetrics.MISMATCH);
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key already used with a different request body");
+        } else if (!record.isCompleted()) {
+            metrics.idempotentRequest(LibraryMetrics.IN_PROGRESS);
+            reject(response, HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+        } else {
+            metrics.idempotentRequest(LibraryMetrics.REPLAYED);
+            IdempotentResponse stored = record.getResponse();
+            response.setStatus(stored.getStatus());
+            response.setContentType(stored.getContentType());
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(stored.getBody().length);
+            response.getOutputStream().write(stored.getBody());
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrors(new ResponseStatusException(status, message)));
+    }
+
+    /**
+     * O corpo é lido antes da cadeia para calcular a impressão digital; o
+     * controller recebe uma cópia dele.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null
+                    ? StandardCharsets.UTF_8
+                    : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
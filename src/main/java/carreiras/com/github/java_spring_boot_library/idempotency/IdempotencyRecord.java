@@ -0,0 +1,19 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import lombok.Value;
+
+/**
+ * Situação de uma chave de idempotência já usada: a impressão digital do
+ * corpo do pedido que a reservou e, quando ele terminou com sucesso, a
+ * resposta produzida.
+ */
+@Value
+public class IdempotencyRecord {
+
+    String fingerprint;
+    IdempotentResponse response;
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+}
@@ -0,0 +1,25 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Chaves de idempotência e as respostas que elas produziram. {@link #begin}
+ * reserva a chave de forma atômica: só quem a reservou executa o pedido e
+ * depois chama {@link #complete} ou, se ele falhou, {@link #release}.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserva a chave para um novo pedido. Se ela já estava reservada e não
+     * expirou, devolve o registro existente e não reserva nada.
+     */
+    Optional<IdempotencyRecord> begin(String key, String fingerprint);
+
+    void complete(String key, IdempotentResponse response);
+
+    /**
+     * Libera uma chave reservada cujo pedido não terminou com sucesso, para
+     * que o cliente possa repeti-lo.
+     */
+    void release(String key);
+}
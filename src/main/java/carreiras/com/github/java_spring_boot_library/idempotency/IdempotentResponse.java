@@ -0,0 +1,15 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import lombok.Value;
+
+/**
+ * Resposta de sucesso guardada para uma chave de idempotência e devolvida
+ * novamente às repetições do pedido.
+ */
+@Value
+public class IdempotentResponse {
+
+    int status;
+    String contentType;
+    byte[] body;
+}
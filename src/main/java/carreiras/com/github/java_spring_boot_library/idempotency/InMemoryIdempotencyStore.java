@@ -0,0 +1,118 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chaves de idempotência em memória, válidas apenas para esta instância.
+ * As chaves são distribuídas por hash entre faixas independentes, cada uma
+ * com seu lock e no máximo maxEntries / stripes chaves; pedidos com chaves
+ * diferentes raramente disputam o mesmo lock. Cada faixa mantém as chaves
+ * na ordem de criação, então as expiradas saem do início do mapa a cada
+ * reserva e, se a faixa encher, a mais antiga é descartada.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Stripe[] stripes;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(int stripes, int maxEntries, Duration ttl, Clock clock) {
+        int stripeCount = Math.max(1, stripes);
+        int entriesPerStripe = Math.max(1, (maxEntries + stripeCount - 1) / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            this.stripes[i] = new Stripe(entriesPerStripe);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> begin(String key, String fingerprint) {
+        Stripe stripe = stripeFor(key);
+        long now = clock.millis();
+
+        stripe.lock.lock();
+        try {
+            stripe.purgeCreatedBefore(now - ttlMillis);
+            Slot slot = stripe.slots.get(key);
+            if (slot != null)
+                return Optional.of(new IdempotencyRecord(slot.fingerprint, slot.response));
+
+            stripe.slots.put(key, new Slot(fingerprint, now));
+            return Optional.empty();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        Stripe stripe = stripeFor(key);
+
+        stripe.lock.lock();
+        try {
+            Slot slot = stripe.slots.get(key);
+            if (slot != null)
+                slot.response = response;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Stripe stripe = stripeFor(key);
+
+        stripe.lock.lock();
+        try {
+            Slot slot = stripe.slots.get(key);
+            if (slot != null && slot.response == null)
+                stripe.slots.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Slot> slots;
+
+        Stripe(int maxEntries) {
+            this.slots = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Slot> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        void purgeCreatedBefore(long limit) {
+            Iterator<Slot> iterator = slots.values().iterator();
+            while (iterator.hasNext() && iterator.next().createdAt < limit)
+                iterator.remove();
+        }
+    }
+
+    private static class Slot {
+
+        private final String fingerprint;
+        private final long createdAt;
+        private IdempotentResponse response;
+
+        Slot(String fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+}
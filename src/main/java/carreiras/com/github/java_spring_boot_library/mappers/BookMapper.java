@@ -0,0 +1,20 @@
+package carreiras.com.github.java_spring_boot_library.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface BookMapper {
+
+    BookDTO toDTO(Book book);
+
+    Book toEntity(BookDTO bookDTO);
+
+    BookDTO toDTO(BookRow book);
+
+    BookRow toRow(BookDTO bookDTO);
+}
@@ -0,0 +1,23 @@
+package carreiras.com.github.java_spring_boot_library.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+
+@Mapper(uses = BookMapper.class)
+public interface LoanMapper {
+
+    @Mapping(target = "isbn", source = "book.isbn")
+    @Mapping(target = "email", source = "customerEmail")
+    LoanDTO toDTO(Loan loan);
+
+    @Mapping(target = "email", source = "customerEmail")
+    @Mapping(target = "book.id", source = "bookId")
+    @Mapping(target = "book.title", source = "title")
+    @Mapping(target = "book.autor", source = "autor")
+    @Mapping(target = "book.isbn", source = "isbn")
+    LoanDTO toDTO(LoanView loan);
+}
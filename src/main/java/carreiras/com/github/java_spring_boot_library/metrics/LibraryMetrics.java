@@ -0,0 +1,116 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import carreiras.com.github.java_spring_boot_library.services.MailDispatchReport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de negócio da aplicação, publicadas em /actuator/metrics e
+ * /actuator/prometheus. Os repositórios já são medidos pelo Spring Data em
+ * spring.data.repository.invocations.
+ */
+@Component
+public class LibraryMetrics {
+
+    public static final String SERVICE_INVOCATIONS = "library.service.invocations";
+    public static final String BUSINESS_FAILURES = "library.business.failures";
+    public static final String JOB_DURATION = "library.job.duration";
+    public static final String MAIL_RECIPIENTS = "library.mail.recipients";
+    public static final String MAIL_DISPATCH = "library.mail.dispatch";
+    public static final String SQL_STATEMENTS = "library.sql.statements";
+    public static final String SQL_ROWS = "library.sql.rows";
+    public static final String SQL_TIME = "library.sql.time";
+    public static final String IDEMPOTENT_REQUESTS = "library.idempotency.requests";
+    public static final String READ_ROUTING = "library.datasource.reads";
+    public static final String REPLICA_LAG = "library.datasource.replica.lag";
+
+    public static final String DUPLICATED_ISBN = "duplicated-isbn";
+    public static final String BOOK_ALREADY_LOANED = "book-already-loaned";
+
+    public static final String EXECUTED = "executed";
+    public static final String REPLAYED = "replayed";
+    public static final String IN_PROGRESS = "in-progress";
+    public static final String MISMATCH = "mismatch";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    public LibraryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void serviceInvocation(Timer.Sample sample, String service, String method, Throwable error) {
+        sample.stop(Timer.builder(SERVICE_INVOCATIONS)
+                .description("Tempo das chamadas aos serviços")
+                .tag("service", service)
+                .tag("method", method)
+                .tag("exception", error == null ? NONE : error.getClass().getSimpleName())
+                .register(registry));
+    }
+
+    public void businessFailure(String reason) {
+        registry.counter(BUSINESS_FAILURES, "reason", reason).increment();
+    }
+
+    public void jobFinished(Timer.Sample sample, String job, boolean succeeded) {
+        sample.stop(Timer.builder(JOB_DURATION)
+                .description("Duração de cada execução dos jobs agendados")
+                .tag("job", job)
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(registry));
+    }
+
+    public void mailDispatched(MailDispatchReport report) {
+        registry.counter(MAIL_RECIPIENTS, "outcome", "sent").increment(report.getSent());
+        registry.counter(MAIL_RECIPIENTS, "outcome", "failed").increment(report.getFailed());
+        Timer.builder(MAIL_DISPATCH)
+                .description("Tempo de envio de cada remessa de e-mails")
+                .register(registry)
+                .record(Duration.ofMillis(report.getElapsedMillis()));
+    }
+
+    public void idempotentRequest(String outcome) {
+        registry.counter(IDEMPOTENT_REQUESTS, "outcome", outcome).increment();
+    }
+
+    public void readRouted(String target) {
+        registry.counter(READ_ROUTING, "target", target).increment();
+    }
+
+    public <T> void replicaLag(T monitor, ToDoubleFunction<T> lagMillis) {
+        Gauge.builder(REPLICA_LAG, monitor, lagMillis)
+                .description("Último atraso medido da réplica de leitura, em ms (-1 se indisponível)")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    public void sqlRequest(SqlRequestStats stats) {
+        DistributionSummary.builder(SQL_STATEMENTS)
+                .description("Comandos SQL por requisição")
+                .tag("endpoint", stats.getEndpoint())
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder(SQL_ROWS)
+                .description("Linhas lidas do banco por requisição")
+                .tag("endpoint", stats.getEndpoint())
+                .register(registry)
+                .record(stats.getRows());
+        Timer.builder(SQL_TIME)
+                .description("Tempo de execução no banco por requisição")
+                .tag("endpoint", stats.getEndpoint())
+                .register(registry)
+                .record(Duration.ofNanos(stats.getDatabaseNanos()));
+    }
+}
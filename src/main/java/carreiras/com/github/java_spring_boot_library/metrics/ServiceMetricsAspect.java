@@ -0,0 +1,42 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mede todos os métodos públicos dos serviços em
+ * {@value LibraryMetrics#SERVICE_INVOCATIONS}. Os serviços reativos ficam de
+ * fora: a chamada só monta o Mono, então o tempo medido não seria o da
+ * execução.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final LibraryMetrics metrics;
+
+    @Around("@within(org.springframework.stereotype.Service) " +
+            "&& within(carreiras.com.github.java_spring_boot_library.services..*) " +
+            "&& !within(carreiras.com.github.java_spring_boot_library.services.impl.Reactive*)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = metrics.start();
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            metrics.serviceInvocation(sample,
+                    joinPoint.getTarget().getClass().getSimpleName(),
+                    joinPoint.getSignature().getName(),
+                    error);
+        }
+    }
+}
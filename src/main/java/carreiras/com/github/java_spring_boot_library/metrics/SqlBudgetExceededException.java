@@ -0,0 +1,8 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String endpoint, int statements, int maxStatements) {
+        super(String.format("SQL budget exceeded on %s: %d statements (budget %d)", endpoint, statements, maxStatements));
+    }
+}
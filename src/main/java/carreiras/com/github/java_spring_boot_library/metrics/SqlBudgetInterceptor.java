@@ -0,0 +1,69 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Abre o registro de SQL de cada requisição aos controllers e, ao final,
+ * publica os números em {@link LibraryMetrics} e avisa quando o orçamento de
+ * comandos foi ultrapassado. Nas exportações assíncronas só a parte síncrona
+ * da requisição é contada.
+ */
+@Slf4j
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private final LibraryMetrics metrics;
+    private final int maxStatements;
+    private final boolean failOnViolation;
+
+    public SqlBudgetInterceptor(LibraryMetrics metrics, int maxStatements, boolean failOnViolation) {
+        this.metrics = metrics;
+        this.maxStatements = maxStatements;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC)
+            SqlRequestStats.begin(endpoint(request), maxStatements, failOnViolation);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        finish();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        finish();
+    }
+
+    private void finish() {
+        SqlRequestStats stats = SqlRequestStats.end();
+        if (stats == null)
+            return;
+
+        metrics.sqlRequest(stats);
+        if (stats.exceeded())
+            log.warn("SQL budget exceeded on {}: {} statements (budget {}), {} rows, {} ms in the database",
+                    stats.getEndpoint(), stats.getStatements(), stats.getMaxStatements(), stats.getRows(),
+                    stats.getDatabaseMillis());
+        else
+            log.debug("{}: {} statements, {} rows, {} ms in the database",
+                    stats.getEndpoint(), stats.getStatements(), stats.getRows(), stats.getDatabaseMillis());
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
@@ -0,0 +1,38 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Soma à requisição em andamento o tempo de execução dos comandos JDBC. O
+ * Hibernate cria uma instância por sessão, a partir do nome da classe.
+ */
+public class SqlExecutionListener extends BaseSessionEventListener {
+
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    private void executed() {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null)
+            stats.executed(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,86 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contadores de SQL de uma requisição: comandos preparados, linhas lidas e
+ * tempo de execução no banco. Ficam presos à thread da requisição e são
+ * alimentados pelos ganchos do Hibernate ({@link SqlStatistics} e
+ * {@link SqlExecutionListener}); fora de uma requisição nada é contado.
+ */
+public class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final int maxStatements;
+    private final boolean failOnViolation;
+
+    private int statements;
+    private long rows;
+    private long databaseNanos;
+
+    SqlRequestStats(String endpoint, int maxStatements, boolean failOnViolation) {
+        this.endpoint = endpoint;
+        this.maxStatements = maxStatements;
+        this.failOnViolation = failOnViolation;
+    }
+
+    static SqlRequestStats begin(String endpoint, int maxStatements, boolean failOnViolation) {
+        SqlRequestStats stats = new SqlRequestStats(endpoint, maxStatements, failOnViolation);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    static SqlRequestStats end() {
+        SqlRequestStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void statementPrepared() {
+        statements++;
+        if (failOnViolation && exceeded())
+            throw new SqlBudgetExceededException(endpoint, statements, maxStatements);
+    }
+
+    void rowsFetched(long count) {
+        rows += count;
+    }
+
+    void executed(long nanos) {
+        databaseNanos += nanos;
+    }
+
+    public boolean exceeded() {
+        return statements > maxStatements;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getDatabaseNanos() {
+        return databaseNanos;
+    }
+
+    public long getDatabaseMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(databaseNanos);
+    }
+}
@@ -0,0 +1,55 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estatísticas do Hibernate que, além dos totais globais, repassam cada
+ * comando preparado e cada linha lida para a requisição em andamento e
+ * registram no log as consultas lentas com o endpoint que as originou.
+ */
+@Slf4j
+public class SqlStatistics extends StatisticsImpl {
+
+    private static final String NO_ENDPOINT = "-";
+
+    private final long slowQueryMillis;
+
+    public SqlStatistics(SessionFactoryImplementor sessionFactory, long slowQueryMillis) {
+        super(sessionFactory);
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null)
+            stats.statementPrepared();
+    }
+
+    @Override
+    public void queryExecuted(String query, int rows, long time) {
+        super.queryExecuted(query, rows, time);
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null)
+            stats.rowsFetched(rows);
+
+        if (time >= slowQueryMillis)
+            log.warn("slow query on {}: {} ms, {} rows: {}",
+                    stats != null ? stats.getEndpoint() : NO_ENDPOINT, time, rows, query);
+    }
+
+    /**
+     * Entidade lida do banco pela chave (fora de uma consulta).
+     */
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null)
+            stats.rowsFetched(1);
+    }
+}
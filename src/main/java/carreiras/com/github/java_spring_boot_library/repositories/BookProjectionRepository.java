@@ -0,0 +1,18 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+
+public interface BookProjectionRepository {
+
+    /**
+     * Mesmo filtro da busca por exemplo (contém, sem diferenciar maiúsculas),
+     * mas selecionando só as colunas das propriedades de BookDTO pedidas.
+     */
+    Page<Map<String, Object>> findFields(Book filter, List<String> fields, Pageable pageable);
+}
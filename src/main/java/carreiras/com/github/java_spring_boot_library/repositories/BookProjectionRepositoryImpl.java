@@ -0,0 +1,50 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+
+public class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    static final FieldProjection<Book> FIELDS = new FieldProjection<>(Book.class)
+            .field("id", "id")
+            .field("title", "title")
+            .field("autor", "autor")
+            .field("isbn", "isbn");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFields(Book filter, List<String> fields, Pageable pageable) {
+        return FIELDS.find(entityManager, fields, (builder, root) -> where(builder, root, filter), pageable);
+    }
+
+    private Predicate where(CriteriaBuilder builder, Root<Book> root, Book filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        contains(builder, root, "title", filter.getTitle(), predicates);
+        contains(builder, root, "autor", filter.getAutor(), predicates);
+        contains(builder, root, "isbn", filter.getIsbn(), predicates);
+        return builder.and(predicates.toArray(Predicate[]::new));
+    }
+
+    private void contains(CriteriaBuilder builder, Root<Book> root, String attribute, String value, List<Predicate> predicates) {
+        if (value == null)
+            return;
+
+        String pattern = "%" + EscapeCharacter.DEFAULT.escape(value.toLowerCase()) + "%";
+        predicates.add(builder.like(builder.lower(root.get(attribute)), pattern, EscapeCharacter.DEFAULT.getEscapeCharacter()));
+    }
+}
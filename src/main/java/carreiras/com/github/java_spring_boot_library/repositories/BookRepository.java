@@ -1,14 +1,75 @@
 package carreiras.com.github.java_spring_boot_library.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
-
-    boolean existsByIsbn(String isbn);
+public interface BookRepository extends JpaRepository<Book, Long>, BookProjectionRepository {
 
     Optional<Book> findByIsbn(String isbn);
+
+    @Query("select b.id from Book b where b.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Os filtros são trechos de texto: % e _ digitados pelo usuário são
+     * escapados para não virarem curingas do like.
+     */
+    @Query("select b " +
+            "from Book b " +
+            "where b.id > :afterId " +
+            "and (:title is null or lower(b.title) like lower(concat('%', :#{#title == null ? null : escape(#title)}, '%')) escape :#{escapeCharacter()}) " +
+            "and (:autor is null or lower(b.autor) like lower(concat('%', :#{#autor == null ? null : escape(#autor)}, '%')) escape :#{escapeCharacter()}) " +
+            "and (:isbn is null or lower(b.isbn) like lower(concat('%', :#{#isbn == null ? null : escape(#isbn)}, '%')) escape :#{escapeCharacter()}) " +
+            "order by b.id")
+    Slice<Book> findNextPage(
+            @Param("title") String title,
+            @Param("autor") String autor,
+            @Param("isbn") String isbn,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("select case when b.activeLoanId is null then true else false end from Book b where b.id = :id")
+    Optional<Boolean> findAvailabilityById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Book b set b.activeLoanId = :loanId where b.id = :id and b.activeLoanId is null")
+    int reserve(@Param("id") Long id, @Param("loanId") Long loanId);
+
+    @Modifying
+    @Query("update Book b set b.activeLoanId = null where b.id = :id and b.activeLoanId = :loanId")
+    int release(@Param("id") Long id, @Param("loanId") Long loanId);
+
+    /**
+     * Mesmo update de release para vários empréstimos de uma vez: chega aos
+     * livros pela chave dos empréstimos e só libera os que ainda estão
+     * marcados por um deles.
+     */
+    @Modifying
+    @Query("update Book b set b.activeLoanId = null " +
+            "where b.id in (select l.book.id from Loan l where l.id in :loanIds) " +
+            "and b.activeLoanId in :loanIds")
+    int releaseAll(@Param("loanIds") Collection<Long> loanIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
 }
@@ -0,0 +1,134 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+
+/**
+ * Consulta de projeção para o parâmetro fields= das listagens: seleciona só
+ * as colunas das propriedades pedidas do DTO e devolve cada linha como um
+ * mapa nesse formato, sem carregar entidades. Propriedades pontuadas
+ * (book.title) viram mapas aninhados, e pedir um prefixo (book) seleciona
+ * todas as propriedades abaixo dele.
+ */
+public class FieldProjection<T> {
+
+    private final Class<T> type;
+    private final Map<String, String> columns = new LinkedHashMap<>();
+
+    public FieldProjection(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Registra uma propriedade do DTO e o caminho correspondente na entidade.
+     */
+    public FieldProjection<T> field(String property, String path) {
+        columns.put(property, path);
+        return this;
+    }
+
+    /**
+     * Propriedades selecionadas pelos campos pedidos, na ordem do DTO.
+     */
+    public List<String> resolve(List<String> fields) {
+        List<String> selected = new ArrayList<>();
+        for (String field : fields) {
+            String name = field.trim();
+            boolean known = false;
+            for (String property : columns.keySet()) {
+                if (property.equals(name) || property.startsWith(name + ".")) {
+                    known = true;
+                    if (!selected.contains(property))
+                        selected.add(property);
+                }
+            }
+            if (!known)
+                throw new BusinessException("Unknown field: " + name + ". Available fields: " + columns.keySet());
+        }
+        if (selected.isEmpty())
+            throw new BusinessException("At least one field must be informed");
+
+        List<String> order = new ArrayList<>(columns.keySet());
+        selected.sort(Comparator.comparingInt(order::indexOf));
+        return selected;
+    }
+
+    public Page<Map<String, Object>> find(EntityManager entityManager,
+            List<String> fields,
+            BiFunction<CriteriaBuilder, Root<T>, Predicate> where,
+            Pageable pageable) {
+        List<String> properties = resolve(fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(properties.stream()
+                .map(property -> path(root, columns.get(property)).alias(property))
+                .toArray(Selection[]::new));
+        query.where(where.apply(builder, root));
+        if (pageable.getSort().isSorted())
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList())
+            content.add(toMap(properties, tuple));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityManager, where));
+    }
+
+    private long count(EntityManager entityManager, BiFunction<CriteriaBuilder, Root<T>, Predicate> where) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(builder.count(root));
+        query.where(where.apply(builder, root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toMap(List<String> properties, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String property : properties) {
+            Map<String, Object> target = row;
+            String[] names = property.split("\\.");
+            for (int i = 0; i < names.length - 1; i++)
+                target = (Map<String, Object>) target.computeIfAbsent(names[i], name -> new LinkedHashMap<>());
+            target.put(names[names.length - 1], tuple.get(property));
+        }
+        return row;
+    }
+
+    private Path<?> path(Root<T> root, String path) {
+        Path<?> current = root;
+        for (String name : path.split("\\."))
+            current = current.get(name);
+        return current;
+    }
+}
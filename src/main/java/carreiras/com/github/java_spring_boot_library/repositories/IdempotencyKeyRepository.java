@@ -0,0 +1,47 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import carreiras.com.github.java_spring_boot_library.entities.IdempotencyKey;
+
+/**
+ * Cada operação roda na sua própria transação: a reserva depende de o
+ * insert falhar pela chave primária sem arrastar uma transação maior.
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_key (id_key, fingerprint, created_at) values (:key, :fingerprint, :createdAt)",
+            nativeQuery = true)
+    int insert(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("createdAt") Instant createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.status = :status, k.contentType = :contentType, k.body = :body where k.key = :key")
+    int complete(@Param("key") String key,
+            @Param("status") Integer status,
+            @Param("contentType") String contentType,
+            @Param("body") byte[] body);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.status is null")
+    int release(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.createdAt < :limit")
+    int deleteExpired(@Param("key") String key, @Param("limit") Instant limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :limit")
+    int deleteExpired(@Param("limit") Instant limit);
+}
@@ -0,0 +1,8 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import carreiras.com.github.java_spring_boot_library.entities.JobCheckpoint;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
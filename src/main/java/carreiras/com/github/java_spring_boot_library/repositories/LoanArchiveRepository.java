@@ -0,0 +1,44 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import carreiras.com.github.java_spring_boot_library.entities.LoanArchive;
+
+public interface LoanArchiveRepository extends JpaRepository<LoanArchive, Long> {
+
+    /**
+     * Copia os empréstimos informados da tabela loan para o arquivo num único
+     * insert ... select, sem carregar as entidades.
+     */
+    @Modifying
+    @Query(value = "insert into loan_archive (id, customer, customer_email, id_book, loan_date, due_date, archived_on) " +
+            "select l.id, l.customer, l.customer_email, l.id_book, l.loan_date, l.due_date, :archivedOn " +
+            "from loan l " +
+            "where l.id in (:ids)", nativeQuery = true)
+    int archive(@Param("ids") Collection<Long> ids, @Param("archivedOn") LocalDate archivedOn);
+
+    /**
+     * Empréstimos arquivados do livro em ordem de id, pela faixa do índice
+     * (id_book, id); limit e offset livres para continuar uma página que
+     * começou na tabela loan.
+     */
+    @Query(value = "select a.* " +
+            "from loan_archive a " +
+            "where a.id_book = :bookId " +
+            "order by a.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<LoanArchive> findByBookId(
+            @Param("bookId") Long bookId,
+            @Param("limit") int limit,
+            @Param("offset") long offset);
+
+    @Query("select count(a) from LoanArchive a where a.book.id = :bookId")
+    long countByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,22 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+
+public interface LoanFilterRepository {
+
+    /**
+     * Empréstimos que atendem a todos os filtros informados, com o livro.
+     */
+    Page<Loan> findByFilter(LoanFilterDTO filter, Pageable pageable);
+
+    /**
+     * Próxima página por cursor: os empréstimos do filtro com id maior que
+     * afterId, em ordem de id.
+     */
+    Slice<Loan> findNextPageByFilter(LoanFilterDTO filter, Long afterId, int size);
+}
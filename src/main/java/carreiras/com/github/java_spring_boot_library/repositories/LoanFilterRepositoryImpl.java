@@ -0,0 +1,113 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+
+/**
+ * Cada filtro informado vira uma condição em "and" e os ausentes ficam fora
+ * da consulta, então cada combinação é atendida pelo índice do seu ramo em
+ * vez de um "or" entre livro e empréstimo que obrigava a varrer a tabela:
+ * <ul>
+ * <li>só isbn: o livro pelo índice único de isbn e os empréstimos dele por
+ * idx_loan_book_returned, que também atende a returned;</li>
+ * <li>só customer: idx_loan_customer_loan_date, que também atende ao
+ * período;</li>
+ * <li>isbn e customer: o livro pelo isbn e idx_loan_book_customer.</li>
+ * </ul>
+ * Sem isbn nem customer a consulta segue a chave primária, só com os filtros
+ * de período e devolução.
+ */
+public class LoanFilterRepositoryImpl implements LoanFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<Loan> findByFilter(LoanFilterDTO filter, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Loan> query = builder.createQuery(Loan.class);
+        Root<Loan> root = query.from(Loan.class);
+        Join<Loan, Book> book = (Join<Loan, Book>) root.<Loan, Book>fetch("book");
+        query.select(root).where(where(builder, root, book, filter));
+        if (pageable.getSort().isSorted())
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        TypedQuery<Loan> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(filter));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Slice<Loan> findNextPageByFilter(LoanFilterDTO filter, Long afterId, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Loan> query = builder.createQuery(Loan.class);
+        Root<Loan> root = query.from(Loan.class);
+        Join<Loan, Book> book = (Join<Loan, Book>) root.<Loan, Book>fetch("book");
+        query.select(root)
+                .where(builder.gt(root.get("id"), afterId), where(builder, root, book, filter))
+                .orderBy(builder.asc(root.get("id")));
+
+        List<Loan> loans = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = loans.size() > size;
+        return new SliceImpl<>(hasNext ? loans.subList(0, size) : loans, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Condições dos filtros informados; book é o caminho do livro na
+     * consulta, só usado quando há filtro por isbn.
+     */
+    static Predicate where(CriteriaBuilder builder, Root<Loan> root, Path<Book> book, LoanFilterDTO filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getIsbn() != null)
+            predicates.add(builder.equal(book.get("isbn"), filter.getIsbn()));
+        if (filter.getCustomer() != null)
+            predicates.add(builder.equal(root.get("customer"), filter.getCustomer()));
+        if (filter.getLoanDateFrom() != null)
+            predicates.add(builder.greaterThanOrEqualTo(root.get("loanDate"), filter.getLoanDateFrom()));
+        if (filter.getLoanDateTo() != null)
+            predicates.add(builder.lessThanOrEqualTo(root.get("loanDate"), filter.getLoanDateTo()));
+        if (Boolean.TRUE.equals(filter.getReturned()))
+            predicates.add(builder.isTrue(root.get("returned")));
+        if (Boolean.FALSE.equals(filter.getReturned()))
+            predicates.add(builder.or(builder.isNull(root.get("returned")), builder.isFalse(root.get("returned"))));
+        return builder.and(predicates.toArray(Predicate[]::new));
+    }
+
+    private long count(LoanFilterDTO filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Loan> root = query.from(Loan.class);
+        query.select(builder.count(root)).where(where(builder, root, root.get("book"), filter));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,19 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+
+public interface LoanProjectionRepository {
+
+    /**
+     * Mesmo filtro de findByFilter, mas selecionando só as colunas das
+     * propriedades de LoanDTO pedidas; o livro só entra na consulta quando
+     * alguma propriedade dele ou o filtro por ISBN precisa.
+     */
+    Page<Map<String, Object>> findFields(LoanFilterDTO filter, List<String> fields, Pageable pageable);
+}
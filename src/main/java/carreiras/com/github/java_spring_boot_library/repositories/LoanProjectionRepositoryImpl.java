@@ -0,0 +1,37 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+
+public class LoanProjectionRepositoryImpl implements LoanProjectionRepository {
+
+    static final FieldProjection<Loan> FIELDS = new FieldProjection<>(Loan.class)
+            .field("id", "id")
+            .field("isbn", "book.isbn")
+            .field("customer", "customer")
+            .field("email", "customerEmail")
+            .field("dueDate", "dueDate")
+            .field("book.id", "book.id")
+            .field("book.title", "book.title")
+            .field("book.autor", "book.autor")
+            .field("book.isbn", "book.isbn");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFields(LoanFilterDTO filter, List<String> fields, Pageable pageable) {
+        return FIELDS.find(entityManager, fields,
+                (builder, root) -> LoanFilterRepositoryImpl.where(builder, root, root.get("book"), filter),
+                pageable);
+    }
+}
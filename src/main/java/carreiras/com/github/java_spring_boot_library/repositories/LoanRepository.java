@@ -1,39 +1,84 @@
 package carreiras.com.github.java_spring_boot_library.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
 
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanProjectionRepository, LoanFilterRepository {
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select l from Loan l join fetch l.book order by l.id")
+	Stream<Loan> streamAll();
+
+	@EntityGraph(attributePaths = "book")
+	Page<Loan> findByBook(Book book, Pageable pageable);
 
-	@Query("select case when(count(l.id) > 0) then true else false end " +
+	/**
+	 * Vencimentos dos empréstimos em aberto a partir de uma data, pela faixa
+	 * do índice de vencimento; usado para reconstruir a {@code OverdueLoanWheel}.
+	 */
+	@Query("select l.id as id, l.dueDate as dueDate " +
 			"from Loan l " +
-			"where l.book = :book " +
+			"where l.dueDate >= :from " +
 			"and (l.returned is null or l.returned is false)")
-	boolean existsByBookAndNotReturned(@Param("book") Book book);
+	List<DueDate> findDueDatesNotReturnedFrom(@Param("from") LocalDate from);
 
 	@Query("select l " +
-			"from Loan as l join l.book as b " +
-			"where b.isbn = :isbn " +
-			"or l.customer = :customer")
-	Page<Loan> findByBookIsbnOrCustomer(
-			@Param("isbn") String isbn,
-			@Param("customer") String customer,
-			Pageable pageRequest);
-
-	Page<Loan> findByBook(Book book, Pageable pageable);
+			"from Loan l " +
+			"where l.id in :ids " +
+			"and (l.returned is null or l.returned is false) " +
+			"order by l.id")
+	List<Loan> findByIdInAndNotReturned(@Param("ids") Collection<Long> ids);
 
-	@Query("select l " +
+	@Query("select l.id " +
 			"from Loan l " +
-			"where l.loanDate <= :threeDaysAgo " +
+			"where l.id in :ids " +
 			"and (l.returned is null or l.returned is false)")
-	List<Loan> findByLoanDateLessThanAndNotReturned(@Param("threeDaysAgo") LocalDate threeDaysAgo);
+	List<Long> findIdsNotReturned(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Empréstimos devolvidos que venceram antes da data, pela faixa do índice
+	 * de vencimento: os candidatos ao arquivamento.
+	 */
+	@Query("select l.id " +
+			"from Loan l " +
+			"where l.dueDate < :before " +
+			"and l.returned = true")
+	List<Long> findIdsReturnedDueBefore(@Param("before") LocalDate before, Pageable pageable);
+
+	/**
+	 * Marca os empréstimos como devolvidos num único update, sem carregá-los,
+	 * e devolve quantos dos ids existiam.
+	 */
+	@Modifying
+	@Query("update Loan l set l.returned = true where l.id in :ids")
+	int markReturned(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("delete from Loan l where l.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
+
+	interface DueDate {
+
+		Long getId();
+
+		LocalDate getDueDate();
+	}
 }
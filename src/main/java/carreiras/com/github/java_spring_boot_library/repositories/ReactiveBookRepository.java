@@ -0,0 +1,52 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+
+    Mono<BookRow> findByIsbn(String isbn);
+
+    /**
+     * O id vem da mesma sequence do JPA. Cada valor lido aqui é usado como
+     * está, e o otimizador pooled do JPA nunca gera o próprio valor que leu,
+     * então os dois lados não colidem.
+     */
+    @Query("select next value for book_seq")
+    Mono<Long> nextId();
+
+    @Query("select active_loan_id is null from book where id = :id")
+    Mono<Boolean> findAvailabilityById(@Param("id") Long id);
+
+    /**
+     * Atualiza só os campos editáveis, sem tocar no marcador de empréstimo,
+     * e avança a versão e a data de alteração como o JPA faz na entidade Book.
+     */
+    @Modifying
+    @Query("update book set title = :title, autor = :autor, version = version + 1, updated_at = localtimestamp where id = :id")
+    Mono<Integer> updateTitleAndAutor(
+            @Param("id") Long id,
+            @Param("title") String title,
+            @Param("autor") String autor);
+
+    @Modifying
+    @Query("update book set active_loan_id = :loanId where id = :id and active_loan_id is null")
+    Mono<Integer> reserve(@Param("id") Long id, @Param("loanId") Long loanId);
+
+    @Modifying
+    @Query("update book set active_loan_id = null " +
+            "where id in (select id_book from loan where id in (:loanIds)) " +
+            "and active_loan_id in (:loanIds)")
+    Mono<Integer> releaseAll(@Param("loanIds") Collection<Long> loanIds);
+
+    @Query("select * from book order by id")
+    Flux<BookRow> streamAll();
+}
@@ -0,0 +1,15 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLoanFilterRepository {
+
+    Flux<LoanView> findByFilter(LoanFilterDTO filter, int limit, long offset);
+
+    Mono<Long> countByFilter(LoanFilterDTO filter);
+
+    Flux<LoanView> findNextPageByFilter(LoanFilterDTO filter, Long afterId, int limit);
+}
@@ -0,0 +1,103 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mesma busca de {@link LoanFilterRepositoryImpl} em SQL para o R2DBC: o
+ * where só recebe as condições dos filtros informados, combinadas com "and",
+ * e o livro só entra na contagem quando há filtro por isbn.
+ */
+public class ReactiveLoanFilterRepositoryImpl implements ReactiveLoanFilterRepository {
+
+    private final R2dbcEntityTemplate template;
+
+    public ReactiveLoanFilterRepositoryImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public Flux<LoanView> findByFilter(LoanFilterDTO filter, int limit, long offset) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql = ReactiveLoanRepository.SELECT_LOAN_VIEW +
+                where(filter, parameters, new ArrayList<>()) +
+                "order by l.id " +
+                "limit :limit offset :offset";
+        parameters.put("limit", limit);
+        parameters.put("offset", offset);
+        return views(sql, parameters);
+    }
+
+    @Override
+    public Mono<Long> countByFilter(LoanFilterDTO filter) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql = "select count(l.id) from loan l " +
+                (filter.getIsbn() != null ? "join book b on b.id = l.id_book " : "") +
+                where(filter, parameters, new ArrayList<>());
+        return bind(sql, parameters)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<LoanView> findNextPageByFilter(LoanFilterDTO filter, Long afterId, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = new ArrayList<>();
+        conditions.add("l.id > :afterId");
+        parameters.put("afterId", afterId);
+        String sql = ReactiveLoanRepository.SELECT_LOAN_VIEW +
+                where(filter, parameters, conditions) +
+                "order by l.id " +
+                "limit :limit";
+        parameters.put("limit", limit);
+        return views(sql, parameters);
+    }
+
+    private String where(LoanFilterDTO filter, Map<String, Object> parameters, List<String> conditions) {
+        if (filter.getIsbn() != null) {
+            conditions.add("b.isbn = :isbn");
+            parameters.put("isbn", filter.getIsbn());
+        }
+        if (filter.getCustomer() != null) {
+            conditions.add("l.customer = :customer");
+            parameters.put("customer", filter.getCustomer());
+        }
+        if (filter.getLoanDateFrom() != null) {
+            conditions.add("l.loan_date >= :loanDateFrom");
+            parameters.put("loanDateFrom", filter.getLoanDateFrom());
+        }
+        if (filter.getLoanDateTo() != null) {
+            conditions.add("l.loan_date <= :loanDateTo");
+            parameters.put("loanDateTo", filter.getLoanDateTo());
+        }
+        if (Boolean.TRUE.equals(filter.getReturned()))
+            conditions.add("l.returned = true");
+        if (Boolean.FALSE.equals(filter.getReturned()))
+            conditions.add("(l.returned is null or l.returned = false)");
+
+        return conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions) + " ";
+    }
+
+    private Flux<LoanView> views(String sql, Map<String, Object> parameters) {
+        return bind(sql, parameters)
+                .map((row, metadata) -> template.getConverter().read(LoanView.class, row, metadata))
+                .all();
+    }
+
+    private GenericExecuteSpec bind(String sql, Map<String, Object> parameters) {
+        GenericExecuteSpec spec = template.getDatabaseClient().sql(sql);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet())
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        return spec;
+    }
+}
@@ -0,0 +1,55 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLoanRepository extends R2dbcRepository<LoanRow, Long>, ReactiveLoanFilterRepository {
+
+	String SELECT_LOAN_VIEW = "select l.id, l.customer, l.customer_email, l.loan_date, l.due_date, l.returned, " +
+			"b.id as book_id, b.title, b.autor, b.isbn " +
+			"from loan l join book b on b.id = l.id_book ";
+
+	@Query(SELECT_LOAN_VIEW +
+			"where l.id_book = :bookId " +
+			"order by l.id " +
+			"limit :limit offset :offset")
+	Flux<LoanView> findByBookId(
+			@Param("bookId") Long bookId,
+			@Param("limit") int limit,
+			@Param("offset") long offset);
+
+	Mono<Long> countByBookId(Long bookId);
+
+	@Query("select a.id, a.customer, a.customer_email, a.loan_date, a.due_date, true as returned, " +
+			"b.id as book_id, b.title, b.autor, b.isbn " +
+			"from loan_archive a join book b on b.id = a.id_book " +
+			"where a.id_book = :bookId " +
+			"order by a.id " +
+			"limit :limit offset :offset")
+	Flux<LoanView> findArchivedByBookId(
+			@Param("bookId") Long bookId,
+			@Param("limit") int limit,
+			@Param("offset") long offset);
+
+	@Query("select count(a.id) from loan_archive a where a.id_book = :bookId")
+	Mono<Long> countArchivedByBookId(@Param("bookId") Long bookId);
+
+	@Query("select id from loan where id in (:ids) and (returned is null or returned is false)")
+	Flux<Long> findIdsNotReturned(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("update loan set returned = true where id in (:ids)")
+	Mono<Integer> markReturned(@Param("ids") Collection<Long> ids);
+
+	@Query(SELECT_LOAN_VIEW + "order by l.id")
+	Flux<LoanView> streamAll();
+}
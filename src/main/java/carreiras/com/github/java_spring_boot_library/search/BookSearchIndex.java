@@ -0,0 +1,272 @@
+package carreiras.com.github.java_spring_boot_library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import lombok.Value;
+
+/**
+ * Índice invertido em memória sobre título e autor dos livros.
+ * Cada livro recebe uma posição fixa no índice e cada termo guarda, em
+ * ordem crescente de posição, os livros que o contém e a frequência do
+ * termo neles. A busca percorre as listas dos termos da consulta em
+ * paralelo, soma frequência x idf e mantém apenas os mais relevantes.
+ * Termos do título valem o dobro dos do autor. Posições liberadas por
+ * remoções são reaproveitadas pelos próximos livros indexados.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTOR_WEIGHT = 1;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private long[] ids = new long[1024];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(Book book) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        tokenize(book.getTitle()).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(book.getAutor()).forEach(term -> frequencies.merge(term, AUTOR_WEIGHT, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(book.getId());
+            if (slot == null) {
+                slot = newSlot(book.getId());
+            } else {
+                removePostings(slot, documents.get(book.getId()));
+            }
+
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet())
+                postings.computeIfAbsent(entry.getKey(), key -> new Postings()).put(slot, entry.getValue());
+            documents.put(book.getId(), frequencies.keySet().toArray(new String[0]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(id);
+            if (slot != null) {
+                removePostings(slot, documents.remove(id));
+                freeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slots.clear();
+            documents.clear();
+            ids = new long[1024];
+            slotCount = 0;
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devolve o total de livros que casam com a consulta e os ids dos
+     * {@code limit} mais relevantes, sem ordenar o restante do resultado.
+     */
+    public Hits search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0)
+            return new Hits(0, Collections.emptyList());
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            double[] idfs = new double[terms.size()];
+            int count = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    lists[count] = list;
+                    idfs[count++] = Math.log(1.0 + (double) documents.size() / list.size);
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(Hit.RELEVANCE.reversed());
+            int[] cursors = new int[count];
+            long total = 0;
+            while (true) {
+                int slot = Integer.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    if (cursors[i] < lists[i].size)
+                        slot = Math.min(slot, lists[i].slots[cursors[i]]);
+                }
+                if (slot == Integer.MAX_VALUE)
+                    break;
+
+                double score = 0;
+                for (int i = 0; i < count; i++) {
+                    if (cursors[i] < lists[i].size && lists[i].slots[cursors[i]] == slot)
+                        score += lists[i].frequencies[cursors[i]++] * idfs[i];
+                }
+
+                total++;
+                if (top.size() < limit) {
+                    top.offer(new Hit(ids[slot], score));
+                } else if (top.peek().isLessRelevantThan(ids[slot], score)) {
+                    top.poll();
+                    top.offer(new Hit(ids[slot], score));
+                }
+            }
+
+            List<Long> result = new ArrayList<>(top.size());
+            while (!top.isEmpty())
+                result.add(top.poll().id);
+            Collections.reverse(result);
+            return new Hits(total, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posições ocupadas ou liberadas desde o último {@link #clear}; não
+     * cresce enquanto houver posições liberadas para reaproveitar.
+     */
+    int slotCount() {
+        lock.readLock().lock();
+        try {
+            return slotCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int newSlot(Long id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == ids.length)
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            slot = slotCount++;
+        }
+
+        ids[slot] = id;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        if (freeCount == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void removePostings(int slot, String[] terms) {
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            list.remove(slot);
+            if (list.size == 0)
+                postings.remove(term);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank())
+            return Collections.emptyList();
+
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(normalized.toLowerCase())) {
+            if (!term.isEmpty())
+                terms.add(term);
+        }
+        return terms;
+    }
+
+    @Value
+    public static class Hits {
+        long total;
+        List<Long> ids;
+    }
+
+    private static final class Hit {
+
+        static final Comparator<Hit> RELEVANCE = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+                .thenComparingLong(hit -> hit.id);
+
+        final long id;
+        final double score;
+
+        Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        boolean isLessRelevantThan(long otherId, double otherScore) {
+            return score < otherScore || (score == otherScore && id > otherId);
+        }
+    }
+
+    private static final class Postings {
+
+        int[] slots = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void put(int slot, int frequency) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+
+            position = -position - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            slots[position] = slot;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0)
+                return;
+
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package carreiras.com.github.java_spring_boot_library.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import carreiras.com.github.java_spring_boot_library.services.BookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndexInitializer {
+
+    private final BookService bookService;
+    private final BookSearchIndex bookSearchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        bookSearchIndex.clear();
+        bookService.exportAll(bookSearchIndex::index);
+        log.info("book search index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+}
@@ -1,15 +1,30 @@
 package carreiras.com.github.java_spring_boot_library.services;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 
 public interface BookService {
 
+    String DUPLICATED_ISBN_MESSAGE = "ISBN já cadastrado. " +
+            "Por favor, revise o ISBN do livro ou contate a sua gerência.";
+
     Book save(Book book);
+
+    List<Book> saveAll(List<Book> books);
+
+    /**
+     * Livro pelo id, do cache quando possível. Cada chamada devolve uma
+     * instância própria e desanexada, que pode ser alterada e passada a
+     * update sem afetar outras leituras.
+     */
     Optional<Book> getById(Long id);
 
     void delete(Book book);
@@ -18,5 +33,15 @@ public interface BookService {
 
     Page<Book> find(Book filter, Pageable pageRequest);
 
+    Slice<Book> find(Book filter, Long afterId, int size);
+
+    Page<Map<String, Object>> find(Book filter, List<String> fields, Pageable pageRequest);
+
+    Page<Book> search(String query, Pageable pageRequest);
+
     Optional<Book> getBookByIsbn(String isbn);
+
+    Optional<Boolean> isAvailable(Long id);
+
+    void exportAll(Consumer<Book> consumer);
 }
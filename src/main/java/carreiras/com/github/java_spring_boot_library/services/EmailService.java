@@ -1,8 +1,9 @@
 package carreiras.com.github.java_spring_boot_library.services;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface EmailService {
 
-    void sendEmails(String message, List<String> mailsList);
+    CompletableFuture<MailDispatchReport> sendEmails(String message, List<String> mailsList);
 }
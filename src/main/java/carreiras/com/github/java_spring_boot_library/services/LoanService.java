@@ -1,10 +1,14 @@
 package carreiras.com.github.java_spring_boot_library.services;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
@@ -12,15 +16,47 @@ import carreiras.com.github.java_spring_boot_library.entities.Loan;
 
 public interface LoanService {
 
+    String BOOK_NOT_FOUND_MESSAGE = "Book not found for passed isbn";
+
     Loan save(Loan loan);
 
-    Optional<Loan> getById(Long id);
+    Loan checkout(String isbn, String customer, String customerEmail);
 
-    Loan update(Loan loan);
+    /**
+     * Marca os empréstimos como devolvidos e libera os livros sem carregar
+     * as entidades, devolvendo quantos dos ids existiam.
+     */
+    int returnLoans(Collection<Long> loanIds);
 
     Page<Loan> find(LoanFilterDTO loanFilterDTO, Pageable pageable);
 
+    Slice<Loan> find(LoanFilterDTO loanFilterDTO, Long afterId, int size);
+
+    Page<Map<String, Object>> find(LoanFilterDTO loanFilterDTO, List<String> fields, Pageable pageable);
+
+    /**
+     * Empréstimos do livro, incluindo os já arquivados depois dos que ainda
+     * estão na tabela loan.
+     */
     Page<Loan> getLoansByBook(Book book, Pageable pageable);
-    
-    List<Loan> getAllLateLoans();
+
+    /**
+     * Arquiva um lote de até batchSize empréstimos devolvidos que venceram
+     * antes da data, devolvendo quantos foram arquivados.
+     */
+    int archiveReturnedLoans(LocalDate dueBefore, int batchSize);
+
+    /**
+     * Empréstimos ainda em aberto entre os informados, já retirados da
+     * {@link OverdueLoanWheel} por terem vencido.
+     */
+    List<Loan> getLateLoans(Collection<Long> loanIds);
+
+    /**
+     * Agenda na {@link OverdueLoanWheel} os empréstimos em aberto que vencem
+     * a partir da data, devolvendo quantos foram agendados.
+     */
+    int scheduleDueDates(LocalDate from);
+
+    void exportAll(Consumer<Loan> consumer);
 }
@@ -0,0 +1,27 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Resultado de um envio em lotes: quantos destinatários foram entregues ao
+ * servidor SMTP, quantos falharam após todas as tentativas e a vazão obtida.
+ */
+@Value
+@Builder
+public class MailDispatchReport {
+
+    int recipients;
+    int sent;
+    int failed;
+    int batches;
+    long elapsedMillis;
+
+    public double getRecipientsPerSecond() {
+        return elapsedMillis == 0 ? sent : sent * 1000.0 / elapsedMillis;
+    }
+
+    public static MailDispatchReport empty() {
+        return MailDispatchReport.builder().build();
+    }
+}
@@ -0,0 +1,83 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Vencimentos dos empréstimos em aberto agrupados por dia, do mais próximo
+ * ao mais distante: uma roda de tempo com uma posição por dia de vencimento.
+ * O job de atrasos só vai ao banco quando uma posição fica para trás, em vez
+ * de varrer todos os empréstimos em aberto. A roda vive em memória e é
+ * reconstruída na subida; quem a consome confere no banco os empréstimos
+ * retirados, então uma entrada que sobrou de um checkout desfeito ou de uma
+ * devolução feita por outra instância não gera aviso. O vencimento de cada
+ * empréstimo também fica indexado pelo id, para que a devolução o retire da
+ * roda sem ler o empréstimo.
+ */
+@Component
+public class OverdueLoanWheel {
+
+    private final TreeMap<LocalDate, Set<Long>> slots = new TreeMap<>();
+    private final Map<Long, LocalDate> dueDates = new HashMap<>();
+
+    public synchronized void schedule(Long loanId, LocalDate dueDate) {
+        if (loanId == null || dueDate == null)
+            return;
+
+        LocalDate previous = dueDates.put(loanId, dueDate);
+        if (previous != null && !previous.equals(dueDate))
+            removeFromSlot(loanId, previous);
+        slots.computeIfAbsent(dueDate, date -> new HashSet<>()).add(loanId);
+    }
+
+    public synchronized void schedule(Map<LocalDate, Set<Long>> dueDates) {
+        dueDates.forEach((dueDate, loanIds) -> loanIds.forEach(loanId -> schedule(loanId, dueDate)));
+    }
+
+    public synchronized void cancel(Long loanId) {
+        LocalDate dueDate = dueDates.remove(loanId);
+        if (dueDate != null)
+            removeFromSlot(loanId, dueDate);
+    }
+
+    public synchronized boolean hasDueBefore(LocalDate date) {
+        return !slots.isEmpty() && slots.firstKey().isBefore(date);
+    }
+
+    /**
+     * Retira da roda as posições vencidas antes da data: os empréstimos que
+     * passam a estar atrasados nela.
+     */
+    public synchronized NavigableMap<LocalDate, Set<Long>> pollDueBefore(LocalDate date) {
+        NavigableMap<LocalDate, Set<Long>> due = new TreeMap<>(slots.headMap(date, false));
+        slots.headMap(date, false).clear();
+        due.values().forEach(slot -> slot.forEach(dueDates::remove));
+        return due;
+    }
+
+    public synchronized int size() {
+        return dueDates.size();
+    }
+
+    public static List<Long> loanIds(Map<LocalDate, Set<Long>> dueDates) {
+        List<Long> loanIds = new ArrayList<>();
+        dueDates.values().forEach(loanIds::addAll);
+        loanIds.sort(null);
+        return loanIds;
+    }
+
+    private void removeFromSlot(Long loanId, LocalDate dueDate) {
+        Set<Long> slot = slots.get(dueDate);
+        if (slot != null && slot.remove(loanId) && slot.isEmpty())
+            slots.remove(dueDate);
+    }
+}
@@ -0,0 +1,36 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Contraparte não bloqueante de {@link BookService}, usada pelo perfil
+ * "reactive".
+ */
+public interface ReactiveBookService {
+
+    Mono<BookRow> save(BookRow book);
+
+    Mono<BookRow> getById(Long id);
+
+    Mono<Void> delete(BookRow book);
+
+    Mono<BookRow> update(BookRow book);
+
+    Mono<Page<BookRow>> find(BookRow filter, Pageable pageRequest);
+
+    Mono<Slice<BookRow>> find(BookRow filter, Long afterId, int size);
+
+    Mono<Page<BookRow>> search(String query, Pageable pageRequest);
+
+    Mono<BookRow> getBookByIsbn(String isbn);
+
+    Mono<Boolean> isAvailable(Long id);
+
+    Flux<BookRow> exportAll();
+}
@@ -0,0 +1,36 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Contraparte não bloqueante de {@link LoanService}, usada pelo perfil
+ * "reactive".
+ */
+public interface ReactiveLoanService {
+
+    Mono<LoanRow> save(LoanRow loan);
+
+    /**
+     * Mesma devolução por update de {@link LoanService#returnLoans},
+     * emitindo quantos dos ids existiam.
+     */
+    Mono<Integer> returnLoans(Collection<Long> loanIds);
+
+    Mono<Page<LoanView>> find(LoanFilterDTO loanFilterDTO, Pageable pageable);
+
+    Mono<Slice<LoanView>> find(LoanFilterDTO loanFilterDTO, Long afterId, int size);
+
+    Mono<Page<LoanView>> getLoansByBook(Long bookId, Pageable pageable);
+
+    Flux<LoanView> exportAll();
+}
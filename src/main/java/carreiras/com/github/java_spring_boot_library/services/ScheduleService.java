@@ -1,36 +1,173 @@
 package carreiras.com.github.java_spring_boot_library.services;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import carreiras.com.github.java_spring_boot_library.entities.JobCheckpoint;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.JobCheckpointRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Avisa os empréstimos que acabaram de atrasar. Os vencimentos em aberto
+ * ficam na {@link OverdueLoanWheel}, reconstruída na subida pelo índice de
+ * vencimento; a cada tick só os dias que ficaram para trás saem da roda e só
+ * esses empréstimos são lidos e avisados, em lotes, em vez de uma varredura
+ * diária de todos os empréstimos em aberto. O checkpoint é gravado após
+ * cada lote, com o dia da execução, o primeiro dia de vencimento que ela
+ * cobre e o último id avisado: se a aplicação cair no meio de um envio, a
+ * roda é reconstruída a partir desse primeiro dia e a próxima execução pula
+ * os ids já avisados. Um lote enviado mas não registrado é reenviado
+ * (entrega pelo menos uma vez).
+ * <p>
+ * Também arquiva, uma vez por dia, os empréstimos devolvidos que venceram há
+ * mais de {@code application.loan.archive.after-days} dias, em lotes, para
+ * que a tabela loan guarde só os empréstimos recentes e os em aberto.
+ */
+@Slf4j
 @Service
 @EnableScheduling
 @RequiredArgsConstructor
 public class ScheduleService {
 
-    private static final String CRON_LATE_LOANS = "0 0 0 1/1 * ?";
+    static final String LATE_LOANS_JOB = "late-loans-mail";
+    static final String ARCHIVE_JOB = "loan-archive";
 
     @Value("${application.email.lateloans.message}")
     private String message;
 
+    @Value("${application.email.lateloans.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${application.loan.archive.after-days:90}")
+    private int archiveAfterDays = 90;
+
+    @Value("${application.loan.archive.batch-size:1000}")
+    private int archiveBatchSize = 1000;
+
     private final LoanService loanService;
     private final EmailService emailService;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final OverdueLoanWheel overdueLoanWheel;
+    private final LibraryMetrics metrics;
+
+    @Scheduled(fixedDelayString = "${application.loan.overdue.tick-millis:60000}")
+    public synchronized void sendMailToLateLoans() {
+        LocalDate today = LocalDate.now();
+        if (!overdueLoanWheel.hasDueBefore(today))
+            return;
+
+        JobCheckpoint previous = jobCheckpointRepository.findById(LATE_LOANS_JOB).orElse(null);
+        NavigableMap<LocalDate, Set<Long>> due = overdueLoanWheel.pollDueBefore(today);
+        Timer.Sample sample = metrics.start();
+        boolean succeeded = false;
+        try {
+            List<Long> loanIds = notSent(due, previous);
+            JobCheckpoint checkpoint = JobCheckpoint.builder()
+                    .job(LATE_LOANS_JOB)
+                    .runDate(today)
+                    .dueFrom(scheduleFrom(previous))
+                    .finished(loanIds.isEmpty())
+                    .build();
+            for (int from = 0; from < loanIds.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, loanIds.size());
+                sendChunk(loanIds.subList(from, to));
+                checkpoint.setLastId(loanIds.get(to - 1));
+                checkpoint.setFinished(to == loanIds.size());
+                jobCheckpointRepository.save(checkpoint);
+            }
+            if (loanIds.isEmpty())
+                jobCheckpointRepository.save(checkpoint);
+            succeeded = true;
+        } finally {
+            if (!succeeded)
+                overdueLoanWheel.schedule(due);
+            metrics.jobFinished(sample, LATE_LOANS_JOB, succeeded);
+        }
+    }
+
+    /**
+     * Agenda os vencimentos a partir do primeiro dia ainda não avisado por
+     * inteiro; sem checkpoint, todos os empréstimos em aberto entram e os já
+     * atrasados são avisados no primeiro tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void scheduleDueDates() {
+        LocalDate from = scheduleFrom(jobCheckpointRepository.findById(LATE_LOANS_JOB).orElse(null));
+        int scheduled = loanService.scheduleDueDates(from);
+        log.info("{} open loans due from {} scheduled for late notices", scheduled, from);
+    }
+
+    /**
+     * Cada lote roda na sua própria transação; o job termina no primeiro
+     * lote incompleto. Interrompido, recomeça do zero na próxima execução
+     * sem perder nada, pois os lotes já concluídos saíram da tabela loan.
+     */
+    @Scheduled(cron = "${application.loan.archive.cron:0 0 3 * * *}")
+    public void archiveReturnedLoans() {
+        LocalDate dueBefore = LocalDate.now().minusDays(archiveAfterDays);
+        Timer.Sample sample = metrics.start();
+        boolean succeeded = false;
+        int archived = 0;
+        try {
+            int batch;
+            do {
+                batch = loanService.archiveReturnedLoans(dueBefore, archiveBatchSize);
+                archived += batch;
+            } while (batch == archiveBatchSize);
+            succeeded = true;
+        } finally {
+            metrics.jobFinished(sample, ARCHIVE_JOB, succeeded);
+        }
+        log.info("{} returned loans due before {} archived", archived, dueBefore);
+    }
+
+    private static LocalDate scheduleFrom(JobCheckpoint checkpoint) {
+        if (checkpoint == null)
+            return LocalDate.EPOCH;
+        if (Boolean.TRUE.equals(checkpoint.getFinished()))
+            return checkpoint.getRunDate();
+        return checkpoint.getDueFrom() == null ? LocalDate.EPOCH : checkpoint.getDueFrom();
+    }
+
+    /**
+     * Ids a avisar em ordem crescente, sem os que uma execução interrompida
+     * já avisou: os vencidos antes do dia dela até o último id gravado.
+     */
+    private static List<Long> notSent(NavigableMap<LocalDate, Set<Long>> due, JobCheckpoint previous) {
+        if (previous == null || Boolean.TRUE.equals(previous.getFinished()) || previous.getLastId() == null)
+            return OverdueLoanWheel.loanIds(due);
+
+        Map<LocalDate, Set<Long>> pending = new TreeMap<>();
+        due.forEach((dueDate, loanIds) -> pending.put(dueDate, dueDate.isBefore(previous.getRunDate())
+                ? loanIds.stream().filter(loanId -> loanId > previous.getLastId()).collect(Collectors.toSet())
+                : loanIds));
+        return OverdueLoanWheel.loanIds(pending);
+    }
 
-    @Scheduled(cron = CRON_LATE_LOANS)
-    public void sendMailToLateLoans() {
-        List<Loan> allLateLoans = loanService.getAllLateLoans();
-        List<String> emailsList = allLateLoans.stream()
+    private void sendChunk(List<Long> loanIds) {
+        List<String> emailsList = loanService.getLateLoans(loanIds).stream()
                 .map(loan -> loan.getCustomerEmail())
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
-        emailService.sendEmails(message, emailsList);
+        if (!emailsList.isEmpty())
+            emailService.sendEmails(message, emailsList).join();
     }
 }
@@ -0,0 +1,30 @@
+package carreiras.com.github.java_spring_boot_library.services.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia para depois do commit as alterações em estruturas em memória que
+ * espelham o banco (roda de vencimentos, índice de busca): se a transação
+ * for desfeita elas continuam como estavam. Fora de transação a ação roda
+ * na hora.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
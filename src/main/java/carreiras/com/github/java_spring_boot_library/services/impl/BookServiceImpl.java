@@ -1,58 +1,159 @@
 package carreiras.com.github.java_spring_boot_library.services.impl;
 
+import static carreiras.com.github.java_spring_boot_library.configurations.CacheConfig.BOOKS_BY_ISBN_CACHE;
+import static carreiras.com.github.java_spring_boot_library.configurations.CacheConfig.BOOKS_CACHE;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import carreiras.com.github.java_spring_boot_library.datasource.ReadWriteRoutingDataSource;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
 import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndex;
 import carreiras.com.github.java_spring_boot_library.services.BookService;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private BookRepository bookRepository;
+    private BookSearchIndex bookSearchIndex;
+    private LibraryMetrics metrics;
+    private CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookSearchIndex bookSearchIndex, LibraryMetrics metrics,
+            CacheManager cacheManager) {
         this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.metrics = metrics;
+        this.cacheManager = cacheManager;
     }
 
+    /**
+     * Lido da primária: é a versão conferida pelo ETag antes de alterar ou
+     * excluir o livro, e a cópia guardada no cache não pode vir de uma
+     * réplica atrasada.
+     */
     @Override
     public Optional<Book> getById(Long id) {
-        return bookRepository.findById(id);
+        return cached(BOOKS_CACHE, id,
+                () -> ReadWriteRoutingDataSource.readFromPrimary(() -> bookRepository.findById(id)));
     }
 
     @Override
+    @CacheEvict(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#book.isbn", condition = "#book.isbn != null")
     public Book save(Book book) {
-        if (bookRepository.existsByIsbn(book.getIsbn()))
-            throw new BusinessException("ISBN já cadastrado. " +
-                    "Por favor, revise o ISBN do livro ou contate a sua gerência.");
+        try {
+            Book savedBook = bookRepository.saveAndFlush(book);
+            AfterCommit.run(() -> bookSearchIndex.index(savedBook));
+            return savedBook;
+        } catch (DataIntegrityViolationException ex) {
+            throw translateIsbnViolation(ex);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Book> saveAll(List<Book> books) {
+        Map<String, Book> byIsbn = books.stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity(), (first, second) -> first,
+                        LinkedHashMap::new));
+        if (byIsbn.isEmpty())
+            return List.of();
+
+        Set<String> existing = bookRepository.findExistingIsbns(byIsbn.keySet());
+        byIsbn.keySet().removeAll(existing);
 
-        return bookRepository.save(book);
+        List<Book> saved;
+        try {
+            saved = bookRepository.saveAllAndFlush(byIsbn.values());
+        } catch (DataIntegrityViolationException ex) {
+            throw translateIsbnViolation(ex);
+        }
+        AfterCommit.run(() -> saved.forEach(bookSearchIndex::index));
+        entityManager.clear();
+        return saved;
     }
 
+    /**
+     * O livro sai do cache também antes da chamada: o evict posterior não
+     * roda quando o update falha, e uma cópia desatualizada em cache faria
+     * toda nova tentativa esbarrar na trava otimista até o cache expirar.
+     */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id", beforeInvocation = true),
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id"),
+            @CacheEvict(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#book.isbn", condition = "#book.isbn != null")
+    })
     public Book update(Book book) {
         if (book == null || book.getId() == null)
             throw new IllegalArgumentException("Book id cant be null.");
 
-        return this.bookRepository.save(book);
+        try {
+            Book updatedBook = this.bookRepository.saveAndFlush(book);
+            AfterCommit.run(() -> bookSearchIndex.index(updatedBook));
+            return updatedBook;
+        } catch (DataIntegrityViolationException ex) {
+            throw translateIsbnViolation(ex);
+        }
     }
 
+    /**
+     * Mesma invalidação antes da chamada de {@link #update}.
+     */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id", beforeInvocation = true),
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id"),
+            @CacheEvict(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#book.isbn", condition = "#book.isbn != null")
+    })
     public void delete(Book book) {
         if (book == null || book.getId() == null)
             throw new IllegalArgumentException("Book id cant be null.");
 
         this.bookRepository.delete(book);
+        AfterCommit.run(() -> bookSearchIndex.remove(book.getId()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Book> find(Book filter, Pageable pageRequest) {
         Example<Book> example = Example.of(
                 filter,
@@ -64,10 +165,116 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> find(Book filter, Long afterId, int size) {
+        return bookRepository.findNextPage(
+                filter.getTitle(),
+                filter.getAutor(),
+                filter.getIsbn(),
+                afterId,
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> find(Book filter, List<String> fields, Pageable pageRequest) {
+        return bookRepository.findFields(filter, fields, pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book> search(String query, Pageable pageRequest) {
+        BookSearchIndex.Hits hits = bookSearchIndex.search(query, (int) pageRequest.getOffset() + pageRequest.getPageSize());
+        List<Long> ranking = hits.getIds();
+        List<Long> pageIds = ranking.subList((int) Math.min(pageRequest.getOffset(), ranking.size()), ranking.size());
+
+        List<Book> books = bookRepository.findAllById(pageIds);
+        books.sort(Comparator.comparingInt(book -> pageIds.indexOf(book.getId())));
+        return new PageImpl<>(books, pageRequest, hits.getTotal());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Boolean> isAvailable(Long id) {
+        return bookRepository.findAvailabilityById(id);
+    }
+
+    /**
+     * Lido da primária pelo mesmo motivo de {@link #getById}: a cópia fica
+     * em cache até expirar.
+     */
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Book> getBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+        return cached(BOOKS_BY_ISBN_CACHE, isbn,
+                () -> ReadWriteRoutingDataSource.readFromPrimary(() -> bookRepository.findByIsbn(isbn)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Book> consumer) {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            Iterator<Book> iterator = books.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % EXPORT_CHUNK_SIZE == 0)
+                    entityManager.clear();
+            }
+        }
     }
 
+    /**
+     * O cache guarda uma cópia imutável do livro e cada leitura recebe um
+     * Book novo, desanexado, montado a partir dela: quem altera o livro
+     * lido não altera o que os outros leem do cache. Livros inexistentes
+     * não são guardados.
+     */
+    private Optional<Book> cached(String cacheName, Object key, Supplier<Optional<Book>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        BookSnapshot snapshot = cache == null ? null : cache.get(key, BookSnapshot.class);
+        if (snapshot == null) {
+            Optional<Book> book = loader.get();
+            if (cache != null)
+                book.ifPresent(found -> cache.put(key, BookSnapshot.of(found)));
+            return book;
+        }
 
-    
+        return Optional.of(snapshot.toBook());
+    }
+
+    /**
+     * A unicidade do ISBN é garantida pelo índice único da tabela; a violação
+     * dele vira o mesmo erro de negócio de antes, as demais seguem adiante.
+     */
+    private RuntimeException translateIsbnViolation(DataIntegrityViolationException ex) {
+        if (ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(Book.ISBN_UNIQUE_CONSTRAINT)) {
+            metrics.businessFailure(LibraryMetrics.DUPLICATED_ISBN);
+            return new BusinessException(DUPLICATED_ISBN_MESSAGE);
+        }
+
+        return ex;
+    }
+
+    private record BookSnapshot(Long id, String title, String autor, String isbn, Long version, Instant updatedAt,
+            Long activeLoanId) {
+
+        static BookSnapshot of(Book book) {
+            return new BookSnapshot(book.getId(), book.getTitle(), book.getAutor(), book.getIsbn(), book.getVersion(),
+                    book.getUpdatedAt(), book.getActiveLoanId());
+        }
+
+        Book toBook() {
+            return Book.builder()
+                    .id(id)
+                    .title(title)
+                    .autor(autor)
+                    .isbn(isbn)
+                    .version(version)
+                    .updatedAt(updatedAt)
+                    .activeLoanId(activeLoanId)
+                    .build();
+        }
+    }
 }
@@ -1,35 +1,246 @@
 package carreiras.com.github.java_spring_boot_library.services.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.mail.Address;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+import carreiras.com.github.java_spring_boot_library.configurations.VirtualThreads;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
 import carreiras.com.github.java_spring_boot_library.services.EmailService;
-import lombok.RequiredArgsConstructor;
+import carreiras.com.github.java_spring_boot_library.services.MailDispatchReport;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Divide os destinatários em lotes de {@code batch-size} (em cópia oculta,
+ * um e-mail por lote) e distribui os lotes entre {@code threads} envios
+ * concorrentes. Cada envio manda todos os seus lotes por uma única conexão
+ * SMTP e reenvia, com espera exponencial, só os lotes que falharam por
+ * erro transitório, e deles só os endereços ainda não entregues; endereços
+ * recusados e recusas 5xx contam como falha. A fila
+ * do executor é limitada: quando enche, quem chamou envia no próprio thread.
+ * Com threads virtuais cada envio ganha a sua thread e o limite de conexões
+ * simultâneas passa a ser garantido só pelo semáforo.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
+    private static final String SUBJECT = "Livro com empréstimo atrasado";
+
     private final JavaMailSender javaMailSender;
+    private final LibraryMetrics metrics;
+    private final ExecutorService executor;
+    private final Semaphore connections;
+    private final int batchSize;
+    private final int threads;
+    private final int maxAttempts;
+    private final long backoffMillis;
 
     @Value("${application.email.lateloans.remetent}")
     private String remetent;
 
+    public EmailServiceImpl(JavaMailSender javaMailSender, LibraryMetrics metrics,
+            @Value("${application.email.dispatch.batch-size:50}") int batchSize,
+            @Value("${application.email.dispatch.threads:4}") int threads,
+            @Value("${application.email.dispatch.queue-capacity:100}") int queueCapacity,
+            @Value("${application.email.dispatch.max-attempts:3}") int maxAttempts,
+            @Value("${application.email.dispatch.backoff-millis:500}") long backoffMillis,
+            @Value("${application.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.javaMailSender = javaMailSender;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+
+        this.connections = new Semaphore(threads);
+        this.executor = virtualThreads
+                ? VirtualThreads.newThreadPerTaskExecutor("mail-")
+                : new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        new CustomizableThreadFactory("mail-"),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     @Override
-    public void sendEmails(String message, List<String> emailsList) {
-        String[] emails = emailsList.toArray(new String[emailsList.size()]);
+    public CompletableFuture<MailDispatchReport> sendEmails(String message, List<String> emailsList) {
+        if (emailsList.isEmpty())
+            return CompletableFuture.completedFuture(MailDispatchReport.empty());
+
+        long start = System.currentTimeMillis();
+        List<SimpleMailMessage> batches = new ArrayList<>();
+        for (int from = 0; from < emailsList.size(); from += batchSize) {
+            List<String> recipients = emailsList.subList(from, Math.min(from + batchSize, emailsList.size()));
+
+            SimpleMailMessage mailMessage = new SimpleMailMessage();
+            mailMessage.setFrom(remetent);
+            mailMessage.setSubject(SUBJECT);
+            mailMessage.setText(message);
+            mailMessage.setBcc(recipients.toArray(new String[0]));
+            batches.add(mailMessage);
+        }
+
+        int connections = Math.min(threads, batches.size());
+        List<CompletableFuture<Integer>> deliveries = new ArrayList<>(connections);
+        for (int connection = 0; connection < connections; connection++) {
+            int offset = connection;
+            List<SimpleMailMessage> share = new ArrayList<>();
+            for (int i = offset; i < batches.size(); i += connections)
+                share.add(batches.get(i));
+
+            deliveries.add(CompletableFuture.supplyAsync(() -> deliver(share), executor));
+        }
+
+        return CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    int failed = deliveries.stream().mapToInt(CompletableFuture::join).sum();
+                    MailDispatchReport report = MailDispatchReport.builder()
+                            .recipients(emailsList.size())
+                            .sent(emailsList.size() - failed)
+                            .failed(failed)
+                            .batches(batches.size())
+                            .elapsedMillis(System.currentTimeMillis() - start)
+                            .build();
+                    log.info("mail dispatch: {} sent, {} failed, {} batches in {} ms ({} recipients/s)",
+                            report.getSent(), report.getFailed(), report.getBatches(), report.getElapsedMillis(),
+                            String.format("%.1f", report.getRecipientsPerSecond()));
+                    metrics.mailDispatched(report);
+                    return report;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Envia os lotes por uma conexão e devolve quantos destinatários
+     * ficaram sem entrega depois de todas as tentativas.
+     */
+    private int deliver(List<SimpleMailMessage> messages) {
+        connections.acquireUninterruptibly();
+        try {
+            return deliverOverConnection(messages);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private int deliverOverConnection(List<SimpleMailMessage> messages) {
+        List<SimpleMailMessage> pending = messages;
+        int rejected = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                javaMailSender.send(pending.toArray(new SimpleMailMessage[0]));
+                return rejected;
+            } catch (MailSendException ex) {
+                if (!ex.getFailedMessages().isEmpty()) {
+                    List<SimpleMailMessage> retry = new ArrayList<>();
+                    for (Map.Entry<Object, Exception> failure : ex.getFailedMessages().entrySet()) {
+                        if (failure.getKey() instanceof SimpleMailMessage mailMessage)
+                            rejected += splitFailure(mailMessage, failure.getValue(), retry);
+                    }
+                    pending = retry;
+                }
+                log.warn("mail dispatch attempt {} failed for {} batches: {}", attempt, pending.size(), ex.getMessage());
+            } catch (MailAuthenticationException | MailParseException | MailPreparationException ex) {
+                int failed = recipients(pending);
+                log.error("mail dispatch failed permanently for {} batches ({} recipients): {}", pending.size(), failed,
+                        ex.getMessage());
+                return rejected + failed;
+            } catch (MailException ex) {
+                log.warn("mail dispatch attempt {} failed for {} batches: {}", attempt, pending.size(), ex.getMessage());
+            }
 
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setFrom(remetent);
-        mailMessage.setSubject("Livro com empréstimo atrasado");
-        mailMessage.setText(message);
-        mailMessage.setTo(emails);
+            if (pending.isEmpty())
+                return rejected;
+            if (attempt == maxAttempts || !backoff(attempt))
+                break;
+        }
 
-        javaMailSender.send(mailMessage);
+        int failed = recipients(pending);
+        log.error("giving up on {} batches ({} recipients) after {} attempts", pending.size(), failed, maxAttempts);
+        return rejected + failed;
     }
 
+    /**
+     * Separa os destinatários de um lote que falhou e devolve quantos não
+     * devem ser tentados de novo: os endereços recusados pelo servidor e,
+     * numa recusa permanente (5xx) da mensagem, todos os não entregues. Os
+     * endereços válidos ainda não entregues voltam num lote só com eles;
+     * falhas sem detalhe por endereço repetem o lote inteiro.
+     */
+    private int splitFailure(SimpleMailMessage mailMessage, Exception failure, List<SimpleMailMessage> retry) {
+        if (!(failure instanceof SendFailedException sendFailed)) {
+            retry.add(mailMessage);
+            return 0;
+        }
+
+        boolean permanent = sendFailed instanceof SMTPSendFailedException smtpFailure
+                && smtpFailure.getReturnCode() >= 500;
+        Address[] invalid = sendFailed.getInvalidAddresses();
+        Address[] unsent = sendFailed.getValidUnsentAddresses();
+        if (invalid == null && unsent == null && sendFailed.getValidSentAddresses() == null) {
+            if (permanent)
+                return mailMessage.getBcc().length;
+
+            retry.add(mailMessage);
+            return 0;
+        }
+
+        int rejected = invalid == null ? 0 : invalid.length;
+        if (unsent == null || unsent.length == 0)
+            return rejected;
+        if (permanent)
+            return rejected + unsent.length;
+
+        SimpleMailMessage remaining = new SimpleMailMessage(mailMessage);
+        remaining.setBcc(Arrays.stream(unsent)
+                .map(address -> address instanceof InternetAddress internetAddress
+                        ? internetAddress.getAddress()
+                        : address.toString())
+                .toArray(String[]::new));
+        retry.add(remaining);
+        return rejected;
+    }
+
+    private static int recipients(List<SimpleMailMessage> messages) {
+        return messages.stream().mapToInt(mailMessage -> mailMessage.getBcc().length).sum();
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(backoffMillis << (attempt - 1));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
@@ -1,61 +1,223 @@
 package carreiras.com.github.java_spring_boot_library.services.impl;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.entities.LoanArchive;
 import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanArchiveRepository;
 import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
 import carreiras.com.github.java_spring_boot_library.services.LoanService;
+import carreiras.com.github.java_spring_boot_library.services.OverdueLoanWheel;
 
 @Service
 public class LoanServiceImpl implements LoanService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private LoanRepository loanRepository;
+    private LoanArchiveRepository loanArchiveRepository;
+    private BookRepository bookRepository;
+    private LibraryMetrics metrics;
+    private OverdueLoanWheel overdueLoanWheel;
+
+    @Value("${application.loan.days:3}")
+    private int loanDays = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public LoanServiceImpl(LoanRepository loanRepository) {
+    public LoanServiceImpl(LoanRepository loanRepository, LoanArchiveRepository loanArchiveRepository,
+            BookRepository bookRepository, LibraryMetrics metrics, OverdueLoanWheel overdueLoanWheel) {
         this.loanRepository = loanRepository;
+        this.loanArchiveRepository = loanArchiveRepository;
+        this.bookRepository = bookRepository;
+        this.metrics = metrics;
+        this.overdueLoanWheel = overdueLoanWheel;
     }
 
+    /**
+     * Grava o empréstimo e marca o livro como emprestado por ele num único
+     * update condicional pela chave do livro; se o livro já tinha um
+     * empréstimo em aberto, a transação é desfeita. Sem vencimento informado,
+     * o empréstimo vence {@code application.loan.days} dias após a retirada.
+     */
     @Override
+    @Transactional
     public Loan save(Loan loan) {
-        if (loanRepository.existsByBookAndNotReturned(loan.getBook()))
+        if (loan.getDueDate() == null && loan.getLoanDate() != null)
+            loan.setDueDate(loan.getLoanDate().plusDays(loanDays));
+
+        Loan savedLoan = loanRepository.save(loan);
+        if (bookRepository.reserve(loan.getBook().getId(), savedLoan.getId()) == 0) {
+            metrics.businessFailure(LibraryMetrics.BOOK_ALREADY_LOANED);
             throw new BusinessException("Book already loaned");
+        }
 
-        return loanRepository.save(loan);
+        AfterCommit.run(() -> overdueLoanWheel.schedule(savedLoan.getId(), savedLoan.getDueDate()));
+        return savedLoan;
     }
 
+    /**
+     * Empresta o livro do isbn informado numa única transação: busca só a
+     * chave do livro e segue o protocolo de {@link #save}. Sob READ COMMITTED
+     * um checkout concorrente do mesmo livro espera o lock da linha no update
+     * condicional e, ao reavaliá-lo, encontra a marca já preenchida; não há
+     * lock global nem leitura prévia da disponibilidade.
+     */
     @Override
-    public Optional<Loan> getById(Long id) {
-        return loanRepository.findById(id);
+    @Transactional
+    public Loan checkout(String isbn, String customer, String customerEmail) {
+        Long bookId = bookRepository.findIdByIsbn(isbn)
+                .orElseThrow(() -> new BusinessException(BOOK_NOT_FOUND_MESSAGE));
+        Loan loan = Loan.builder()
+                .book(bookRepository.getById(bookId))
+                .customer(customer)
+                .customerEmail(customerEmail)
+                .loanDate(LocalDate.now())
+                .build();
+
+        return save(loan);
     }
 
+    /**
+     * Um update marca os empréstimos como devolvidos e outro libera a marca
+     * dos livros que estavam emprestados por eles, sem carregar as
+     * entidades. Só os que ainda estavam em aberto saem da roda, e só
+     * depois do commit.
+     */
     @Override
-    public Loan update(Loan loan) {
-        return loanRepository.save(loan);
+    @Transactional
+    public int returnLoans(Collection<Long> loanIds) {
+        List<Long> openIds = loanRepository.findIdsNotReturned(loanIds);
+        int returned = loanRepository.markReturned(loanIds);
+        if (!openIds.isEmpty()) {
+            bookRepository.releaseAll(openIds);
+            AfterCommit.run(() -> openIds.forEach(overdueLoanWheel::cancel));
+        }
+
+        return returned;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Loan> find(LoanFilterDTO loanFilterDTO, Pageable pageable) {
-        return loanRepository.findByBookIsbnOrCustomer(loanFilterDTO.getIsbn(), loanFilterDTO.getCustomer(), pageable);
+        return loanRepository.findByFilter(loanFilterDTO, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Loan> find(LoanFilterDTO loanFilterDTO, Long afterId, int size) {
+        return loanRepository.findNextPageByFilter(loanFilterDTO, afterId, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> find(LoanFilterDTO loanFilterDTO, List<String> fields, Pageable pageable) {
+        return loanRepository.findFields(loanFilterDTO, fields, pageable);
+    }
+
+    /**
+     * Os empréstimos da tabela loan vêm primeiro, na ordem pedida, e em
+     * seguida os arquivados do livro, em ordem de id: a página que passa do
+     * fim dos empréstimos ativos é completada com o arquivo, e o total soma
+     * os dois. Sem nada arquivado para o livro é a mesma consulta de antes.
+     */
+    @Override
+    @Transactional(readOnly = true)
     public Page<Loan> getLoansByBook(Book book, Pageable pageable) {
-        return loanRepository.findByBook(book, pageable);
+        Page<Loan> loans = loanRepository.findByBook(book, pageable);
+        long archived = loanArchiveRepository.countByBookId(book.getId());
+        if (archived == 0)
+            return loans;
+
+        long total = loans.getTotalElements() + archived;
+        int missing = pageable.isPaged() ? pageable.getPageSize() - loans.getNumberOfElements() : Integer.MAX_VALUE;
+        if (missing == 0)
+            return new PageImpl<>(loans.getContent(), pageable, total);
+
+        long offset = pageable.isPaged() ? Math.max(0, pageable.getOffset() - loans.getTotalElements()) : 0;
+        List<Loan> content = new ArrayList<>(loans.getContent());
+        for (LoanArchive loanArchive : loanArchiveRepository.findByBookId(book.getId(), missing, offset))
+            content.add(toLoan(loanArchive, book));
+        return new PageImpl<>(content, pageable, total);
     }
 
+    /**
+     * Move um lote de empréstimos devolvidos que venceram antes da data para
+     * o arquivo: copia e apaga pelos mesmos ids na mesma transação, então um
+     * lote interrompido não deixa empréstimo duplicado nem perdido.
+     */
     @Override
-    public List<Loan> getAllLateLoans() {
-        final Integer loanDays = 4;
-        LocalDate threeDaysAgo = LocalDate.now().minusDays(loanDays);
-        return loanRepository.findByLoanDateLessThanAndNotReturned(threeDaysAgo);
+    @Transactional
+    public int archiveReturnedLoans(LocalDate dueBefore, int batchSize) {
+        List<Long> loanIds = loanRepository.findIdsReturnedDueBefore(dueBefore, PageRequest.of(0, batchSize));
+        if (loanIds.isEmpty())
+            return 0;
+
+        loanArchiveRepository.archive(loanIds, LocalDate.now());
+        return loanRepository.deleteByIds(loanIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Loan> getLateLoans(Collection<Long> loanIds) {
+        return loanRepository.findByIdInAndNotReturned(loanIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int scheduleDueDates(LocalDate from) {
+        List<LoanRepository.DueDate> dueDates = loanRepository.findDueDatesNotReturnedFrom(from);
+        dueDates.forEach(dueDate -> overdueLoanWheel.schedule(dueDate.getId(), dueDate.getDueDate()));
+        return dueDates.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Loan> consumer) {
+        try (Stream<Loan> loans = loanRepository.streamAll()) {
+            Iterator<Loan> iterator = loans.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % EXPORT_CHUNK_SIZE == 0)
+                    entityManager.clear();
+            }
+        }
+    }
+
+    private static Loan toLoan(LoanArchive loanArchive, Book book) {
+        return Loan.builder()
+                .id(loanArchive.getId())
+                .customer(loanArchive.getCustomer())
+                .customerEmail(loanArchive.getCustomerEmail())
+                .book(book)
+                .loanDate(loanArchive.getLoanDate())
+                .dueDate(loanArchive.getDueDate())
+                .returned(true)
+                .build();
     }
 }
@@ -0,0 +1,184 @@
+package carreiras.com.github.java_spring_boot_library.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.ReactiveBookRepository;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndex;
+import carreiras.com.github.java_spring_boot_library.services.BookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private ReactiveBookRepository bookRepository;
+    private R2dbcEntityTemplate template;
+    private BookSearchIndex bookSearchIndex;
+    private LibraryMetrics metrics;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository bookRepository, R2dbcEntityTemplate template,
+            BookSearchIndex bookSearchIndex, LibraryMetrics metrics) {
+        this.bookRepository = bookRepository;
+        this.template = template;
+        this.bookSearchIndex = bookSearchIndex;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<BookRow> save(BookRow book) {
+        return bookRepository.nextId()
+                .flatMap(id -> {
+                    book.setId(id);
+                    book.setVersion(0L);
+                    book.setUpdatedAt(LocalDateTime.now());
+                    return template.insert(book);
+                })
+                .onErrorMap(DataIntegrityViolationException.class, this::translateIsbnViolation)
+                .doOnNext(savedBook -> bookSearchIndex.index(toBook(savedBook)));
+    }
+
+    @Override
+    public Mono<BookRow> getById(Long id) {
+        return bookRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Void> delete(BookRow book) {
+        if (book == null || book.getId() == null)
+            return Mono.error(new IllegalArgumentException("Book id cant be null."));
+
+        return bookRepository.deleteById(book.getId())
+                .doOnSuccess(done -> bookSearchIndex.remove(book.getId()));
+    }
+
+    @Override
+    public Mono<BookRow> update(BookRow book) {
+        if (book == null || book.getId() == null)
+            return Mono.error(new IllegalArgumentException("Book id cant be null."));
+
+        return bookRepository.updateTitleAndAutor(book.getId(), book.getTitle(), book.getAutor())
+                .thenReturn(book)
+                .doOnNext(updatedBook -> bookSearchIndex.index(toBook(updatedBook)));
+    }
+
+    @Override
+    public Mono<Page<BookRow>> find(BookRow filter, Pageable pageRequest) {
+        Criteria criteria = filterCriteria(filter);
+        Mono<List<BookRow>> books = template.select(Query.query(criteria).with(pageRequest), BookRow.class)
+                .collectList();
+        Mono<Long> total = template.count(Query.query(criteria), BookRow.class);
+
+        return Mono.zip(books, total, (content, count) -> new PageImpl<>(content, pageRequest, count));
+    }
+
+    @Override
+    public Mono<Slice<BookRow>> find(BookRow filter, Long afterId, int size) {
+        Query query = Query.query(filterCriteria(filter).and("id").greaterThan(afterId))
+                .sort(Sort.by("id"))
+                .limit(size + 1);
+
+        return template.select(query, BookRow.class)
+                .collectList()
+                .map(books -> {
+                    boolean hasNext = books.size() > size;
+                    List<BookRow> content = hasNext ? books.subList(0, size) : books;
+                    return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+                });
+    }
+
+    @Override
+    public Mono<Page<BookRow>> search(String query, Pageable pageRequest) {
+        BookSearchIndex.Hits hits = bookSearchIndex.search(query, (int) pageRequest.getOffset() + pageRequest.getPageSize());
+        List<Long> ranking = hits.getIds();
+        List<Long> pageIds = ranking.subList((int) Math.min(pageRequest.getOffset(), ranking.size()), ranking.size());
+
+        return bookRepository.findAllById(pageIds)
+                .collectList()
+                .map(books -> {
+                    books.sort(Comparator.comparingInt(book -> pageIds.indexOf(book.getId())));
+                    return new PageImpl<>(books, pageRequest, hits.getTotal());
+                });
+    }
+
+    @Override
+    public Mono<BookRow> getBookByIsbn(String isbn) {
+        return bookRepository.findByIsbn(isbn);
+    }
+
+    @Override
+    public Mono<Boolean> isAvailable(Long id) {
+        return bookRepository.findAvailabilityById(id);
+    }
+
+    @Override
+    public Flux<BookRow> exportAll() {
+        return bookRepository.streamAll();
+    }
+
+    /**
+     * Mesmo filtro do Example de {@link BookServiceImpl}: campos nulos são
+     * ignorados e os textos são buscados por trecho, sem diferenciar caixa.
+     */
+    private Criteria filterCriteria(BookRow filter) {
+        Criteria criteria = Criteria.empty();
+        if (filter.getId() != null)
+            criteria = criteria.and("id").is(filter.getId());
+        if (filter.getTitle() != null)
+            criteria = criteria.and(containing("title", filter.getTitle()));
+        if (filter.getAutor() != null)
+            criteria = criteria.and(containing("autor", filter.getAutor()));
+        if (filter.getIsbn() != null)
+            criteria = criteria.and(containing("isbn", filter.getIsbn()));
+
+        return criteria;
+    }
+
+    private static Criteria containing(String column, String value) {
+        return Criteria.where(column).like("%" + value + "%").ignoreCase(true);
+    }
+
+    private static Book toBook(BookRow book) {
+        return Book.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .autor(book.getAutor())
+                .isbn(book.getIsbn())
+                .build();
+    }
+
+    /**
+     * O driver R2DBC não expõe o nome da restrição violada, então ela é
+     * procurada na mensagem do banco.
+     */
+    private Throwable translateIsbnViolation(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        if (message != null && message.toLowerCase().contains(Book.ISBN_UNIQUE_CONSTRAINT)) {
+            metrics.businessFailure(LibraryMetrics.DUPLICATED_ISBN);
+            return new BusinessException(BookService.DUPLICATED_ISBN_MESSAGE);
+        }
+
+        return ex;
+    }
+}
@@ -0,0 +1,146 @@
+package carreiras.com.github.java_spring_boot_library.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.ReactiveBookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.ReactiveLoanRepository;
+import carreiras.com.github.java_spring_boot_library.services.OverdueLoanWheel;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+@Service
+@Profile("reactive")
+public class ReactiveLoanServiceImpl implements ReactiveLoanService {
+
+    private ReactiveLoanRepository loanRepository;
+    private ReactiveBookRepository bookRepository;
+    private TransactionalOperator transactionalOperator;
+    private LibraryMetrics metrics;
+    private OverdueLoanWheel overdueLoanWheel;
+
+    @Value("${application.loan.days:3}")
+    private int loanDays = 3;
+
+    public ReactiveLoanServiceImpl(ReactiveLoanRepository loanRepository, ReactiveBookRepository bookRepository,
+            TransactionalOperator transactionalOperator, LibraryMetrics metrics, OverdueLoanWheel overdueLoanWheel) {
+        this.loanRepository = loanRepository;
+        this.bookRepository = bookRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.metrics = metrics;
+        this.overdueLoanWheel = overdueLoanWheel;
+    }
+
+    /**
+     * Mesmo protocolo de {@link LoanServiceImpl#save}: grava o empréstimo e
+     * reserva o livro com o update condicional, desfazendo tudo se o livro já
+     * estava emprestado.
+     */
+    @Override
+    public Mono<LoanRow> save(LoanRow loan) {
+        if (loan.getDueDate() == null && loan.getLoanDate() != null)
+            loan.setDueDate(loan.getLoanDate().plusDays(loanDays));
+
+        return loanRepository.save(loan)
+                .flatMap(savedLoan -> bookRepository.reserve(savedLoan.getBookId(), savedLoan.getId())
+                        .flatMap(reserved -> {
+                            if (reserved > 0)
+                                return Mono.just(savedLoan);
+
+                            metrics.businessFailure(LibraryMetrics.BOOK_ALREADY_LOANED);
+                            return Mono.<LoanRow>error(new BusinessException("Book already loaned"));
+                        }))
+                .as(transactionalOperator::transactional)
+                .doOnNext(savedLoan -> overdueLoanWheel.schedule(savedLoan.getId(), savedLoan.getDueDate()));
+    }
+
+    /**
+     * Os vencimentos dos empréstimos que estavam em aberto saem da roda
+     * depois que a transação é confirmada.
+     */
+    @Override
+    public Mono<Integer> returnLoans(Collection<Long> loanIds) {
+        return loanRepository.findIdsNotReturned(loanIds)
+                .collectList()
+                .flatMap(openIds -> loanRepository.markReturned(loanIds)
+                        .flatMap(returned -> (openIds.isEmpty() ? Mono.empty() : bookRepository.releaseAll(openIds))
+                                .thenReturn(Tuples.of(returned, openIds))))
+                .as(transactionalOperator::transactional)
+                .doOnNext(result -> result.getT2().forEach(overdueLoanWheel::cancel))
+                .map(Tuple2::getT1);
+    }
+
+    @Override
+    public Mono<Page<LoanView>> find(LoanFilterDTO loanFilterDTO, Pageable pageable) {
+        Mono<List<LoanView>> loans = loanRepository.findByFilter(loanFilterDTO, pageable.getPageSize(),
+                pageable.getOffset())
+                .collectList();
+        Mono<Long> total = loanRepository.countByFilter(loanFilterDTO);
+
+        return Mono.zip(loans, total, (content, count) -> new PageImpl<>(content, pageable, count));
+    }
+
+    @Override
+    public Mono<Slice<LoanView>> find(LoanFilterDTO loanFilterDTO, Long afterId, int size) {
+        return loanRepository.findNextPageByFilter(loanFilterDTO, afterId, size + 1)
+                .collectList()
+                .map(loans -> {
+                    boolean hasNext = loans.size() > size;
+                    List<LoanView> content = hasNext ? loans.subList(0, size) : loans;
+                    return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+                });
+    }
+
+    /**
+     * Mesma ordem da API servlet: os empréstimos da tabela loan e, passado o
+     * fim deles, os arquivados do livro.
+     */
+    @Override
+    public Mono<Page<LoanView>> getLoansByBook(Long bookId, Pageable pageable) {
+        Mono<List<LoanView>> loans = loanRepository.findByBookId(bookId, pageable.getPageSize(), pageable.getOffset())
+                .collectList();
+
+        return Mono.zip(loans, loanRepository.countByBookId(bookId), loanRepository.countArchivedByBookId(bookId))
+                .flatMap(result -> {
+                    List<LoanView> content = result.getT1();
+                    long total = result.getT2() + result.getT3();
+                    int missing = pageable.getPageSize() - content.size();
+                    if (result.getT3() == 0 || missing == 0)
+                        return Mono.just(new PageImpl<>(content, pageable, total));
+
+                    long offset = Math.max(0, pageable.getOffset() - result.getT2());
+                    return loanRepository.findArchivedByBookId(bookId, missing, offset)
+                            .collectList()
+                            .map(archived -> {
+                                List<LoanView> merged = new ArrayList<>(content);
+                                merged.addAll(archived);
+                                return new PageImpl<>(merged, pageable, total);
+                            });
+                });
+    }
+
+    @Override
+    public Flux<LoanView> exportAll() {
+        return loanRepository.streamAll();
+    }
+}
@@ -0,0 +1,52 @@
+package carreiras.com.github.java_spring_boot_library.configurations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+public class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    @DisplayName("Não deve alterar os executores quando o modo de threads virtuais está desligado")
+    public void disabledByDefaultTest() {
+        contextRunner.run(context -> Assertions.assertThat(context).doesNotHaveBean(TaskScheduler.class));
+    }
+
+    @Test
+    @DisplayName("Deve usar threads virtuais quando ligado, ou falhar na subida em Java anterior ao 21")
+    public void enabledTest() {
+        contextRunner.withPropertyValues("application.virtual-threads.enabled=true").run(context -> {
+            if (VirtualThreads.isSupported()) {
+                Assertions.assertThat(context).hasSingleBean(TaskScheduler.class);
+            } else {
+                Assertions.assertThat(context).hasFailed();
+                Assertions.assertThat(context.getStartupFailure())
+                        .hasRootCauseMessage("application.virtual-threads.enabled requires Java 21 or newer.");
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Deve executar tarefas em threads virtuais nomeadas quando suportado")
+    public void threadPerTaskExecutorTest() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            Assertions.assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-"))
+                    .isInstanceOf(IllegalStateException.class);
+            return;
+        }
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        String name = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor).get();
+        executor.shutdown();
+
+        Assertions.assertThat(name).startsWith("test-");
+    }
+}
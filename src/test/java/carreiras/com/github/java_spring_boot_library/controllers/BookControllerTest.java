@@ -1,7 +1,11 @@
 package carreiras.com.github.java_spring_boot_library.controllers;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -16,10 +20,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -232,6 +240,111 @@ public class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("isbn").value(123456789));
     }
 
+    @Test
+    @DisplayName("Deve devolver ETag e Last-Modified e responder 304 quando o livro não mudou")
+    public void conditionalGetBookTest() throws Exception {
+        // Cenário
+        Book book = Book.builder()
+                .id(1L)
+                .title("Titulo")
+                .autor("Autor")
+                .isbn("123456789")
+                .version(3L)
+                .updatedAt(Instant.parse("2022-06-01T10:00:00Z"))
+                .build();
+
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(book));
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LAST_MODIFIED,
+                        "Wed, 01 Jun 2022 10:00:00 GMT"))
+                .andExpect(MockMvcResultMatchers.jsonPath("title").value("Titulo"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar um livro quando o If-Match traz a versão atual e devolver a nova ETag")
+    public void updateBookIfMatchTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(createNewBook());
+        Book updatingBook = Book.builder().id(1L).isbn("123456789").version(3L).build();
+        Book updatedBook = Book.builder().id(1L).title("Titulo").autor("Autor").isbn("123456789").version(4L).build();
+
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(updatingBook));
+        BDDMockito.given(bookService.update(updatingBook)).willReturn(updatedBook);
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    @DisplayName("Deve recusar com 412 a atualização e a exclusão de uma versão desatualizada")
+    public void staleIfMatchTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(createNewBook());
+        Book book = Book.builder().id(1L).isbn("123456789").version(4L).build();
+
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(book));
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        Mockito.verify(bookService, Mockito.never()).update(Mockito.any(Book.class));
+        Mockito.verify(bookService, Mockito.never()).delete(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 409 quando outra requisição alterou o livro durante a atualização")
+    public void concurrentUpdateTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(createNewBook());
+        Book book = Book.builder().id(1L).isbn("123456789").version(4L).build();
+
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(book));
+        BDDMockito.given(bookService.update(book))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+    }
+
     @Test
     @DisplayName("Deve retornar 404 ao tentar atualizar um livro inexistente")
     public void updateBookInexistentTest() throws Exception {
@@ -250,6 +363,38 @@ public class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Deve informar a disponibilidade de um livro")
+    public void bookAvailabilityTest() throws Exception {
+        // Cenário
+        BDDMockito.given(bookService.isAvailable(1L)).willReturn(Optional.of(false));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("available").value(false));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 404 ao consultar a disponibilidade de um livro inexistente")
+    public void bookAvailabilityNotFoundTest() throws Exception {
+        // Cenário
+        BDDMockito.given(bookService.isAvailable(1L)).willReturn(Optional.empty());
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     @Test
     @DisplayName("Deve filtrar livros")
     public void findBooksTest() throws Exception {
@@ -280,6 +425,254 @@ public class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("pageable.pageNumber").value(0));
     }
 
+    @Test
+    @DisplayName("Deve filtrar livros devolvendo só os campos pedidos numa página compacta")
+    public void findBooksFieldsTest() throws Exception {
+        // Cenário
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.eq(List.of("id", "title")), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Map<String, Object>>(
+                        List.of(Map.of("id", 1, "title", "Meu livro")), PageRequest.of(0, 10), 11));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?title=livro&fields=id,title&page=0&size=10"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].title").value("Meu livro"))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].isbn").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("page").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("size").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("totalElements").value(11))
+                .andExpect(MockMvcResultMatchers.jsonPath("totalPages").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("pageable").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao pedir um campo que não existe")
+    public void findBooksUnknownFieldTest() throws Exception {
+        // Cenário
+        String errorMessage = "Unknown field: foo";
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.anyList(), Mockito.any(Pageable.class)))
+                .willThrow(new BusinessException(errorMessage));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?fields=foo"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value(errorMessage));
+    }
+
+    @Test
+    @DisplayName("Deve buscar livros por texto livre")
+    public void searchBooksTest() throws Exception {
+        // Cenário
+        Book book = Book.builder()
+                .id(1L)
+                .title(createNewBook().getTitle())
+                .autor(createNewBook().getAutor())
+                .isbn(createNewBook().getIsbn())
+                .build();
+
+        BDDMockito.given(bookService.search(Mockito.eq("titulo autor"), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 20), 1));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?q=titulo autor&size=20"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros com paginação por cursor")
+    public void findBooksByCursorTest() throws Exception {
+        // Cenário
+        Book book = Book.builder()
+                .id(7L)
+                .title(createNewBook().getTitle())
+                .autor(createNewBook().getAutor())
+                .isbn(createNewBook().getIsbn())
+                .build();
+
+        BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.eq(0L), Mockito.eq(1)))
+                .willReturn(new SliceImpl<Book>(Arrays.asList(book), PageRequest.of(0, 1), true));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?title=Titulo&cursor=&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").value("Nw"))
+                .andExpect(MockMvcResultMatchers.jsonPath("totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve retornar Bad Request para um cursor inválido")
+    public void findBooksByInvalidCursorTest() throws Exception {
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=@@"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar Bad Request para um tamanho de página por cursor fora do limite")
+    public void findBooksByCursorInvalidSizeTest() throws Exception {
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=0"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("Page size must be between 1 and 100"));
+        Mockito.verify(bookService, Mockito.never()).find(Mockito.any(Book.class), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve exportar os livros em NDJSON")
+    public void exportBooksTest() throws Exception {
+        // Cenário
+        Book first = Book.builder().id(1L).title("Titulo").autor("Autor").isbn("1").build();
+        Book second = Book.builder().id(2L).title("Titulo").autor("Autor").isbn("2").build();
+
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).given(bookService).exportAll(Mockito.any());
+
+        // Execução
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andReturn();
+
+        // Validações
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(
+                        "{\"id\":1,\"title\":\"Titulo\",\"autor\":\"Autor\",\"isbn\":\"1\"}\n" +
+                        "{\"id\":2,\"title\":\"Titulo\",\"autor\":\"Autor\",\"isbn\":\"2\"}\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve criar livros em lote informando o resultado de cada item")
+    public void createBooksInBatchTest() throws Exception {
+        // Cenário
+        BookDTO valid = createNewBook();
+        BookDTO duplicated = BookDTO.builder().title("Outro").autor("Autor").isbn("987654321").build();
+        BookDTO invalid = BookDTO.builder().title("Sem isbn").autor("Autor").build();
+
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(valid, duplicated, invalid));
+
+        BDDMockito.willAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.get(0).setId(1L);
+            return books.subList(0, 1);
+        }).given(bookService).saveAll(Mockito.anyList());
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].status").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].status").value("DUPLICATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[2].status").value("INVALID"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[2].message").value("ISBN deve ser informado!"));
+        Mockito.verify(bookService, Mockito.times(1)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve gravar um a um o lote desfeito por um isbn criado por outra importação")
+    public void createBooksInBatchConcurrentIsbnTest() throws Exception {
+        // Cenário
+        BookDTO first = createNewBook();
+        BookDTO concurrent = BookDTO.builder().title("Outro").autor("Autor").isbn("987654321").build();
+
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(first, concurrent));
+
+        BDDMockito.willAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(10L));
+            throw new BusinessException("ISBN já cadastrado.");
+        }).given(bookService).saveAll(Mockito.anyList());
+        BDDMockito.willAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(book.getIsbn().equals("123456789") ? 1L : 11L);
+            if (book.getId() == 11L)
+                throw new BusinessException("ISBN já cadastrado.");
+            return book;
+        }).given(bookService).save(Mockito.any(Book.class));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].status").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].id").value(1L))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].status").value("DUPLICATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].id").doesNotExist());
+        Mockito.verify(bookService, Mockito.times(2)).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve criar livros em lote a partir de NDJSON")
+    public void createBooksInBatchFromNdjsonTest() throws Exception {
+        // Cenário
+        String ndjson = "{\"title\":\"Titulo\",\"autor\":\"Autor\",\"isbn\":\"1\"}\n" +
+                "{\"title\":\"Titulo\",\"autor\":\"Autor\",\"isbn\":\"2\"}\n";
+
+        BDDMockito.given(bookService.saveAll(Mockito.anyList())).willReturn(Arrays.asList());
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].isbn").value("2"));
+    }
+
     private BookDTO createNewBook() {
         return BookDTO.builder()
                 .title("Titulo")
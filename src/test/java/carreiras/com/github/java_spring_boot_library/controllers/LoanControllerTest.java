@@ -2,7 +2,8 @@ package carreiras.com.github.java_spring_boot_library.controllers;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +18,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -30,10 +32,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoansDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
 import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
-import carreiras.com.github.java_spring_boot_library.services.BookService;
 import carreiras.com.github.java_spring_boot_library.services.LoanService;
 import carreiras.com.github.java_spring_boot_library.services.LoanServiceTest;
 
@@ -48,9 +50,6 @@ public class LoanControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
-    private BookService bookService;
-
     @MockBean
     private LoanService loanService;
 
@@ -78,8 +77,7 @@ public class LoanControllerTest {
 
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
-        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.of(book));
-        BDDMockito.given(loanService.save(Mockito.any(Loan.class))).willReturn(loan);
+        BDDMockito.given(loanService.checkout("123456789", "Fulano", "customer@email.com")).willReturn(loan);
 
         // Execução
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API)
@@ -104,7 +102,8 @@ public class LoanControllerTest {
 
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
-        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.empty());
+        BDDMockito.given(loanService.checkout("123456789", "Fulano", null))
+                .willThrow(new BusinessException(LoanService.BOOK_NOT_FOUND_MESSAGE));
 
         // Execução
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API)
@@ -129,15 +128,9 @@ public class LoanControllerTest {
                 .customer("Fulano")
                 .build();
 
-        Book book = Book.builder()
-                .id(1L)
-                .isbn("123456789")
-                .build();
-
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
-        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.of(book));
-        BDDMockito.given(loanService.save(Mockito.any(Loan.class)))
+        BDDMockito.given(loanService.checkout("123456789", "Fulano", null))
                 .willThrow(new BusinessException("Book already loaned"));
 
         // Execução
@@ -157,10 +150,6 @@ public class LoanControllerTest {
     @DisplayName("Deve retornar um livro")
     public void returnBookTest() throws Exception {
         // Cenário
-        Loan loan = Loan.builder()
-                .id(1L)
-                .build();
-
         ReturnedLoanDTO returnedLoanDTO = ReturnedLoanDTO.builder()
                 .returned(true)
                 .build();
@@ -168,7 +157,7 @@ public class LoanControllerTest {
         String json = new ObjectMapper().writeValueAsString(returnedLoanDTO);
 
         // Execução
-        BDDMockito.given(loanService.getById(Mockito.anyLong())).willReturn(Optional.of(loan));
+        BDDMockito.given(loanService.returnLoans(List.of(1L))).willReturn(1);
 
         // Validações
         mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
@@ -189,7 +178,7 @@ public class LoanControllerTest {
         String json = new ObjectMapper().writeValueAsString(returnedLoanDTO);
 
         // Execução
-        BDDMockito.given(loanService.getById(Mockito.anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(loanService.returnLoans(List.of(1L))).willReturn(0);
 
         // Validações
         mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
@@ -199,6 +188,56 @@ public class LoanControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Deve recusar reabrir um empréstimo pelo PATCH de devolução")
+    public void reopenLoanTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(ReturnedLoanDTO.builder().returned(false).build());
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value(LoanController.ONLY_RETURN_MESSAGE));
+        Mockito.verify(loanService, Mockito.never()).returnLoans(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve devolver vários empréstimos numa única chamada")
+    public void returnBooksTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(ReturnedLoansDTO.builder().ids(List.of(1L, 2L, 1L, 3L)).build());
+
+        BDDMockito.given(loanService.returnLoans(List.of(1L, 2L, 3L))).willReturn(2);
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("ids", Matchers.hasSize(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("returned").value(2));
+    }
+
+    @Test
+    @DisplayName("Deve recusar uma devolução em lote sem empréstimos")
+    public void returnBooksWithoutIdsTest() throws Exception {
+        // Cenário
+        String json = new ObjectMapper().writeValueAsString(ReturnedLoansDTO.builder().ids(List.of()).build());
+
+        // Execução e validações
+        mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+        Mockito.verify(loanService, Mockito.never()).returnLoans(Mockito.anyCollection());
+    }
+
     @Test
     @DisplayName("Deve filtrar empréstimos")
     public void findBooksTest() throws Exception {
@@ -231,4 +270,87 @@ public class LoanControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("pageable.pageSize").value(10))
                 .andExpect(MockMvcResultMatchers.jsonPath("pageable.pageNumber").value(0));
     }
+
+    @Test
+    @DisplayName("Deve filtrar empréstimos por período de retirada e devolução")
+    public void findLoansByPeriodTest() throws Exception {
+        // Cenário
+        BDDMockito.given(loanService.find(Mockito.any(LoanFilterDTO.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Loan>(List.of(), PageRequest.of(0, 10), 0));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(LOAN_API.concat("?customer=Fulano&loanDateFrom=2024-01-01&loanDateTo=2024-01-31&returned=false"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(loanService).find(
+                Mockito.eq(LoanFilterDTO.builder()
+                        .customer("Fulano")
+                        .loanDateFrom(LocalDate.of(2024, 1, 1))
+                        .loanDateTo(LocalDate.of(2024, 1, 31))
+                        .returned(false)
+                        .build()),
+                Mockito.any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar empréstimos devolvendo só os campos pedidos numa página compacta")
+    public void findLoansFieldsTest() throws Exception {
+        // Cenário
+        BDDMockito.given(loanService.find(Mockito.any(LoanFilterDTO.class), Mockito.eq(List.of("id", "book")), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Map<String, Object>>(
+                        List.of(Map.of("id", 1, "book", Map.of("title", "Meu livro"))), PageRequest.of(0, 10), 1));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(LOAN_API.concat("?customer=Fulano&fields=id,book&page=0&size=10"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].book.title").value("Meu livro"))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].customer").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("totalElements").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("pageable").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve filtrar empréstimos com paginação por cursor")
+    public void findLoansByCursorTest() throws Exception {
+        // Cenário
+        Loan loan = LoanServiceTest.createLoan();
+        loan.setId(7L);
+
+        BDDMockito.given(loanService.find(Mockito.any(LoanFilterDTO.class), Mockito.eq(0L), Mockito.eq(1)))
+                .willReturn(new SliceImpl<Loan>(List.of(loan), PageRequest.of(0, 1), true));
+
+        // Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Fulano&cursor=&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        // Validações
+        mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").value("Nw"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar Bad Request para um tamanho de página por cursor fora do limite")
+    public void findLoansByCursorInvalidSizeTest() throws Exception {
+        // Execução e validações
+        for (String size : List.of("0", "-1", "101")) {
+            mockMvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?cursor=&size=" + size))
+                    .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                    .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("Page size must be between 1 and 100"));
+        }
+
+        Mockito.verify(loanService, Mockito.never())
+                .find(Mockito.any(LoanFilterDTO.class), Mockito.anyLong(), Mockito.anyInt());
+    }
 }
@@ -0,0 +1,162 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import carreiras.com.github.java_spring_boot_library.dtos.BookDTO;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ActiveProfiles("reactive")
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(controllers = ReactiveBookController.class)
+public class ReactiveBookControllerTest {
+
+    static String BOOK_API = "/api/books";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveBookService bookService;
+
+    @MockBean
+    private ReactiveLoanService loanService;
+
+    @Test
+    @DisplayName("Deve criar um livro com sucesso")
+    public void createBookTest() {
+        // Cenário
+        BookDTO bookDTO = createNewBookDTO();
+        BookRow savedBook = BookRow.builder().id(10L).title("As aventuras").autor("Artur").isbn("001").build();
+
+        BDDMockito.given(bookService.save(Mockito.any(BookRow.class))).willReturn(Mono.just(savedBook));
+
+        // Execução e validações
+        webTestClient.post()
+                .uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookDTO)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("id").isEqualTo(10)
+                .jsonPath("title").isEqualTo(bookDTO.getTitle())
+                .jsonPath("autor").isEqualTo(bookDTO.getAutor())
+                .jsonPath("isbn").isEqualTo(bookDTO.getIsbn());
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro de validação com os mesmos erros da API bloqueante")
+    public void createInvalidBookTest() {
+        // Execução e validações
+        webTestClient.post()
+                .uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro ao tentar cadastrar um livro com isbn já utilizado por outro")
+    public void createBookWithDuplicatedIsbn() {
+        // Cenário
+        String mensagemErro = "ISBN já cadastrado.";
+        BDDMockito.given(bookService.save(Mockito.any(BookRow.class)))
+                .willReturn(Mono.error(new BusinessException(mensagemErro)));
+
+        // Execução e validações
+        webTestClient.post()
+                .uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createNewBookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(1)
+                .jsonPath("errors[0]").isEqualTo(mensagemErro);
+    }
+
+    @Test
+    @DisplayName("Deve retornar resource not found quando o livro procurado não existir")
+    public void bookNotFoundTest() {
+        // Cenário
+        BDDMockito.given(bookService.getById(Mockito.anyLong())).willReturn(Mono.empty());
+
+        // Execução e validações
+        webTestClient.get()
+                .uri(BOOK_API + "/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros paginando pelos parâmetros da requisição")
+    public void findBooksTest() {
+        // Cenário
+        BookRow book = BookRow.builder().id(1L).title("As aventuras").autor("Artur").isbn("001").build();
+
+        BDDMockito.given(bookService.find(Mockito.any(BookRow.class), Mockito.any(Pageable.class)))
+                .willReturn(Mono.just(new PageImpl<>(List.of(book), PageRequest.of(0, 100), 1)));
+
+        // Execução e validações
+        webTestClient.get()
+                .uri(BOOK_API + "?title=aventuras&page=0&size=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("totalElements").isEqualTo(1)
+                .jsonPath("pageable.pageSize").isEqualTo(100)
+                .jsonPath("pageable.pageNumber").isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Deve exportar os livros em NDJSON")
+    public void exportBooksTest() {
+        // Cenário
+        BDDMockito.given(bookService.exportAll()).willReturn(Flux.just(
+                BookRow.builder().id(1L).title("A").autor("B").isbn("001").build(),
+                BookRow.builder().id(2L).title("C").autor("D").isbn("002").build()));
+
+        // Execução e validações
+        webTestClient.get()
+                .uri(BOOK_API + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BookDTO.class)
+                .hasSize(2);
+    }
+
+    private BookDTO createNewBookDTO() {
+        return BookDTO.builder()
+                .title("As aventuras")
+                .autor("Artur")
+                .isbn("001")
+                .build();
+    }
+}
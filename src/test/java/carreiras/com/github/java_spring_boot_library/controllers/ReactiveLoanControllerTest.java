@@ -0,0 +1,231 @@
+package carreiras.com.github.java_spring_boot_library.controllers;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoanDTO;
+import carreiras.com.github.java_spring_boot_library.dtos.ReturnedLoansDTO;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+import reactor.core.publisher.Mono;
+
+@ActiveProfiles("reactive")
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(controllers = ReactiveLoanController.class)
+public class ReactiveLoanControllerTest {
+
+    static String LOAN_API = "/api/loans";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveBookService bookService;
+
+    @MockBean
+    private ReactiveLoanService loanService;
+
+    @Test
+    @DisplayName("Deve realizar um empréstimo")
+    public void createLoanTest() {
+        // Cenário
+        BookRow book = BookRow.builder().id(1L).isbn("123456789").build();
+        LoanRow loan = LoanRow.builder().id(1L).bookId(1L).customer("Fulano").build();
+
+        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Mono.just(book));
+        BDDMockito.given(loanService.save(Mockito.any(LoanRow.class))).willReturn(Mono.just(loan));
+
+        // Execução e validações
+        webTestClient.post()
+                .uri(LOAN_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createLoanDTO())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Deve gravar o e-mail do cliente no empréstimo")
+    public void createLoanWithEmailTest() {
+        // Cenário
+        BookRow book = BookRow.builder().id(1L).isbn("123456789").build();
+        LoanRow loan = LoanRow.builder().id(1L).bookId(1L).customer("Fulano").build();
+
+        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Mono.just(book));
+        BDDMockito.given(loanService.save(Mockito.any(LoanRow.class))).willReturn(Mono.just(loan));
+
+        // Execução
+        webTestClient.post()
+                .uri(LOAN_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createLoanDTO())
+                .exchange()
+                .expectStatus().isCreated();
+
+        // Validações
+        ArgumentCaptor<LoanRow> saved = ArgumentCaptor.forClass(LoanRow.class);
+        Mockito.verify(loanService).save(saved.capture());
+        Assertions.assertThat(saved.getValue().getCustomerEmail()).isEqualTo("customer@email.com");
+        Assertions.assertThat(saved.getValue().getBookId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao tentar fazer o empréstimo de um livro inexistente")
+    public void invalidIsbnCreateLoanTest() {
+        // Cenário
+        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Mono.empty());
+
+        // Execução e validações
+        webTestClient.post()
+                .uri(LOAN_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createLoanDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(1)
+                .jsonPath("errors[0]").isEqualTo("Book not found for passed isbn");
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao tentar fazer o empréstimo de um livro já emprestado")
+    public void loanedBookErrorOnCreateLoanTest() {
+        // Cenário
+        BookRow book = BookRow.builder().id(1L).isbn("123456789").build();
+
+        BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Mono.just(book));
+        BDDMockito.given(loanService.save(Mockito.any(LoanRow.class)))
+                .willReturn(Mono.error(new BusinessException("Book already loaned")));
+
+        // Execução e validações
+        webTestClient.post()
+                .uri(LOAN_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createLoanDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Book already loaned");
+    }
+
+    @Test
+    @DisplayName("Deve devolver um livro")
+    public void returnBookTest() {
+        // Cenário
+        BDDMockito.given(loanService.returnLoans(List.of(1L))).willReturn(Mono.just(1));
+
+        // Execução e validações
+        webTestClient.patch()
+                .uri(LOAN_API + "/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReturnedLoanDTO.builder().returned(true).build())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("Deve retornar 404 quando tentar devolver um livro inexistente")
+    public void returnInexistentBookTest() {
+        // Cenário
+        BDDMockito.given(loanService.returnLoans(List.of(1L))).willReturn(Mono.just(0));
+
+        // Execução e validações
+        webTestClient.patch()
+                .uri(LOAN_API + "/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReturnedLoanDTO.builder().returned(true).build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Deve recusar desfazer a devolução de um empréstimo")
+    public void unreturnLoanTest() {
+        // Execução e validações
+        webTestClient.patch()
+                .uri(LOAN_API + "/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReturnedLoanDTO.builder().returned(false).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo(LoanController.ONLY_RETURN_MESSAGE);
+
+        Mockito.verify(loanService, Mockito.never()).returnLoans(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve devolver vários empréstimos de uma vez, ignorando ids repetidos")
+    public void returnBooksTest() {
+        // Cenário
+        BDDMockito.given(loanService.returnLoans(List.of(1L, 2L, 3L))).willReturn(Mono.just(2));
+
+        // Execução e validações
+        webTestClient.patch()
+                .uri(LOAN_API + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReturnedLoansDTO.builder().ids(List.of(1L, 2L, 2L, 3L)).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("ids.length()").isEqualTo(3)
+                .jsonPath("returned").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a devolução em lote sem ids")
+    public void returnBooksWithoutIdsTest() {
+        // Execução e validações
+        webTestClient.patch()
+                .uri(LOAN_API + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReturnedLoansDTO.builder().ids(List.of()).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verify(loanService, Mockito.never()).returnLoans(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve retornar Bad Request para um tamanho de página por cursor fora do limite")
+    public void findLoansByCursorInvalidSizeTest() {
+        // Execução e validações
+        webTestClient.get()
+                .uri(LOAN_API + "?cursor=&size=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Page size must be between 1 and 100");
+
+        Mockito.verify(loanService, Mockito.never())
+                .find(Mockito.any(LoanFilterDTO.class), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    private LoanDTO createLoanDTO() {
+        return LoanDTO.builder()
+                .isbn("123456789")
+                .customer("Fulano")
+                .email("customer@email.com")
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package carreiras.com.github.java_spring_boot_library.datasource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.services.BookService;
+
+/**
+ * Primária e réplica são dois bancos H2 em memória; a "replicação" é uma
+ * cópia da primária para a réplica com o SCRIPT do H2, que leva junto o
+ * heartbeat. Depois da cópia o título é alterado só na réplica, para saber
+ * de qual banco cada leitura veio.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "application.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "application.datasource.replica.max-lag-millis=60000",
+        "application.datasource.replica.heartbeat-millis=3600000"
+})
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @Test
+    @DisplayName("Deve ler da primária até a réplica ter o heartbeat e depois ler da réplica")
+    public void readOnlyTransactionsGoToReplicaTest() {
+        // Cenário
+        Book book = bookService.save(Book.builder().title("Primaria").autor("Autor").isbn("routing-1").build());
+        replicaLagMonitor.check();
+        List<String> beforeReplication = titles("routing-1");
+
+        replicate();
+        new JdbcTemplate(replica).update("update book set title = 'Replica' where isbn = 'routing-1'");
+
+        // Execução
+        replicaLagMonitor.check();
+        List<String> afterReplication = titles("routing-1");
+
+        // Validações
+        Assertions.assertThat(beforeReplication).containsExactly("Primaria");
+        Assertions.assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        Assertions.assertThat(afterReplication).containsExactly("Replica");
+        Assertions.assertThat(bookService.getById(book.getId()).get().getTitle()).isEqualTo("Primaria");
+    }
+
+    @Test
+    @DisplayName("Deve gravar na primária e voltar a ler dela quando a réplica atrasar além do limite")
+    public void laggingReplicaFallsBackToPrimaryTest() {
+        // Cenário
+        bookService.save(Book.builder().title("Primaria").autor("Autor").isbn("routing-2").build());
+        replicaLagMonitor.check();
+        replicate();
+        new JdbcTemplate(replica).update("update book set title = 'Replica' where isbn = 'routing-2'");
+        new JdbcTemplate(replica).update("update replication_heartbeat set beat_at = beat_at - 3600000");
+
+        // Execução
+        replicaLagMonitor.check();
+        List<String> titles = titles("routing-2");
+
+        // Validações
+        Assertions.assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        Assertions.assertThat(replicaLagMonitor.getLagMillis()).isGreaterThan(60000);
+        Assertions.assertThat(titles).containsExactly("Primaria");
+        Assertions.assertThat(new JdbcTemplate(primary)
+                .queryForObject("select count(*) from book where isbn = 'routing-2'", Integer.class)).isEqualTo(1);
+    }
+
+    private List<String> titles(String isbn) {
+        return bookService.find(Book.builder().isbn(isbn).build(), PageRequest.of(0, 10))
+                .map(Book::getTitle)
+                .getContent();
+    }
+
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primary).queryForList("script", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .collect(Collectors.toList());
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("drop all objects");
+        script.forEach(replicaJdbc::execute);
+    }
+}
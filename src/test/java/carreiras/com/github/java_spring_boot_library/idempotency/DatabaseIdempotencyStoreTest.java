@@ -0,0 +1,76 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import carreiras.com.github.java_spring_boot_library.entities.IdempotencyKey;
+import carreiras.com.github.java_spring_boot_library.repositories.IdempotencyKeyRepository;
+
+/**
+ * A reserva depende do insert falhar na chave primária já gravada por outra
+ * transação, então o teste roda sem a transação envolvente do DataJpaTest.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve reservar a chave uma única vez e devolver a resposta gravada às repetições")
+    public void beginAndCompleteTest() {
+        // Cenário
+        DatabaseIdempotencyStore store = new DatabaseIdempotencyStore(repository, Duration.ofMinutes(1), Clock.systemUTC());
+
+        // Execução
+        Assertions.assertThat(store.begin("k1", "abc")).isEmpty();
+        IdempotencyRecord inProgress = store.begin("k1", "abc").get();
+        store.complete("k1", new IdempotentResponse(201, "application/json", "1".getBytes()));
+        IdempotencyRecord completed = store.begin("k1", "abc").get();
+
+        // Validações
+        Assertions.assertThat(inProgress.isCompleted()).isFalse();
+        Assertions.assertThat(completed.getResponse().getStatus()).isEqualTo(201);
+        Assertions.assertThat(completed.getResponse().getBody()).isEqualTo("1".getBytes());
+    }
+
+    @Test
+    @DisplayName("Deve liberar a chave de um pedido que falhou e reaproveitar chaves expiradas")
+    public void releaseAndExpirationTest() {
+        // Cenário
+        DatabaseIdempotencyStore store = new DatabaseIdempotencyStore(repository, Duration.ofMinutes(1), Clock.systemUTC());
+        store.begin("failed", "abc");
+        repository.save(IdempotencyKey.builder()
+                .key("expired")
+                .fingerprint("abc")
+                .createdAt(Instant.now().minus(Duration.ofMinutes(2)))
+                .status(201)
+                .build());
+
+        // Execução
+        store.release("failed");
+
+        // Validações
+        Assertions.assertThat(store.begin("failed", "abc")).isEmpty();
+        Assertions.assertThat(store.begin("expired", "def")).isEmpty();
+        Assertions.assertThat(repository.findById("expired").get().getFingerprint()).isEqualTo("def");
+    }
+}
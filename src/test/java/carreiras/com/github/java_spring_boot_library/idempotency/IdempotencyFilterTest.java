@@ -0,0 +1,154 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IdempotencyFilterTest {
+
+    private static final String BOOK_JSON = "{\"title\":\"Meu livro\",\"autor\":\"Autor\",\"isbn\":\"123\"}";
+
+    private final IdempotencyStore store = new InMemoryIdempotencyStore(4, 100, Duration.ofMinutes(1), Clock.systemUTC());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyFilter filter =
+            new IdempotencyFilter(store, new ObjectMapper(), new LibraryMetrics(meterRegistry));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("Deve devolver a resposta original às repetições sem executar o pedido de novo")
+    public void replayTest() throws Exception {
+        // Cenário
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k1", BOOK_JSON), new MockHttpServletResponse(), chain);
+
+        // Execução
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("k1", BOOK_JSON), response, chain);
+
+        // Validações
+        Assertions.assertThat(executions).hasValue(1);
+        Assertions.assertThat(response.getStatus()).isEqualTo(201);
+        Assertions.assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        Assertions.assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(meterRegistry.counter(LibraryMetrics.IDEMPOTENT_REQUESTS,
+                "outcome", LibraryMetrics.REPLAYED).count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve entregar o corpo original ao controller")
+    public void forwardBodyTest() throws Exception {
+        // Cenário
+        StringBuilder received = new StringBuilder();
+        FilterChain chain = (request, response) ->
+                received.append(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8));
+
+        // Execução
+        filter.doFilter(post("k1", BOOK_JSON), new MockHttpServletResponse(), chain);
+
+        // Validações
+        Assertions.assertThat(received.toString()).isEqualTo(BOOK_JSON);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a mesma chave com outro corpo")
+    public void mismatchTest() throws Exception {
+        // Cenário
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k1", BOOK_JSON), new MockHttpServletResponse(), chain);
+
+        // Execução
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("k1", BOOK_JSON.replace("123", "456")), response, chain);
+
+        // Validações
+        Assertions.assertThat(executions).hasValue(1);
+        Assertions.assertThat(response.getStatus()).isEqualTo(422);
+        Assertions.assertThat(response.getContentAsString()).contains("different request body");
+    }
+
+    @Test
+    @DisplayName("Deve recusar uma repetição enquanto o pedido original ainda executa")
+    public void inProgressTest() throws Exception {
+        // Cenário
+        store.begin("POST /api/books k1", DigestUtils.md5DigestAsHex(BOOK_JSON.getBytes()));
+
+        // Execução
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("k1", BOOK_JSON), response, created("{\"id\":1}"));
+
+        // Validações
+        Assertions.assertThat(executions).hasValue(0);
+        Assertions.assertThat(response.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("Deve executar de novo as repetições de um pedido que falhou")
+    public void failedRequestTest() throws Exception {
+        // Cenário
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(400);
+        };
+        filter.doFilter(post("k1", BOOK_JSON), new MockHttpServletResponse(), chain);
+
+        // Execução
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("k1", BOOK_JSON), response, chain);
+
+        // Validações
+        Assertions.assertThat(executions).hasValue(2);
+        Assertions.assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar pedidos sem o cabeçalho Idempotency-Key")
+    public void withoutKeyTest() throws Exception {
+        // Cenário
+        FilterChain chain = created("{\"id\":1}");
+
+        // Execução
+        filter.doFilter(post(null, BOOK_JSON), new MockHttpServletResponse(), chain);
+        filter.doFilter(post(null, BOOK_JSON), new MockHttpServletResponse(), chain);
+
+        // Validações
+        Assertions.assertThat(executions).hasValue(2);
+    }
+
+    private FilterChain created(String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            httpResponse.getWriter().write(body);
+        };
+    }
+
+    private MockHttpServletRequest post(String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes());
+        if (idempotencyKey != null)
+            request.addHeader(IdempotencyFilter.HEADER, idempotencyKey);
+        return request;
+    }
+}
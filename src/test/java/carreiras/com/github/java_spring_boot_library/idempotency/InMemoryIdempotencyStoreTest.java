@@ -0,0 +1,84 @@
+package carreiras.com.github.java_spring_boot_library.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class InMemoryIdempotencyStoreTest {
+
+    private static final IdempotentResponse CREATED = new IdempotentResponse(201, "application/json", "1".getBytes());
+
+    @Test
+    @DisplayName("Deve reservar a chave uma única vez e devolver a resposta guardada às repetições")
+    public void beginAndCompleteTest() {
+        // Cenário
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(4, 100, Duration.ofMinutes(1), Clock.systemUTC());
+
+        // Execução
+        Assertions.assertThat(store.begin("k1", "abc")).isEmpty();
+        IdempotencyRecord inProgress = store.begin("k1", "abc").get();
+        store.complete("k1", CREATED);
+        IdempotencyRecord completed = store.begin("k1", "abc").get();
+
+        // Validações
+        Assertions.assertThat(inProgress.isCompleted()).isFalse();
+        Assertions.assertThat(completed.getFingerprint()).isEqualTo("abc");
+        Assertions.assertThat(completed.getResponse()).isSameAs(CREATED);
+    }
+
+    @Test
+    @DisplayName("Deve liberar apenas chaves cujo pedido não terminou com sucesso")
+    public void releaseTest() {
+        // Cenário
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(4, 100, Duration.ofMinutes(1), Clock.systemUTC());
+        store.begin("failed", "abc");
+        store.begin("done", "abc");
+        store.complete("done", CREATED);
+
+        // Execução
+        store.release("failed");
+        store.release("done");
+
+        // Validações
+        Assertions.assertThat(store.begin("failed", "abc")).isEmpty();
+        Assertions.assertThat(store.begin("done", "abc").get().isCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve esquecer as chaves expiradas")
+    public void expirationTest() {
+        // Cenário
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenReturn(0L, Duration.ofMinutes(2).toMillis());
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1, 100, Duration.ofMinutes(1), clock);
+        store.begin("k1", "abc");
+        store.complete("k1", CREATED);
+
+        // Execução
+        Optional<IdempotencyRecord> record = store.begin("k1", "def");
+
+        // Validações
+        Assertions.assertThat(record).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve descartar a chave mais antiga quando a faixa estiver cheia")
+    public void boundedTest() {
+        // Cenário
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1, 2, Duration.ofMinutes(1), Clock.systemUTC());
+
+        // Execução
+        store.begin("k1", "abc");
+        store.begin("k2", "abc");
+        store.begin("k3", "abc");
+
+        // Validações
+        Assertions.assertThat(store.begin("k3", "abc")).isPresent();
+        Assertions.assertThat(store.begin("k1", "abc")).isEmpty();
+    }
+}
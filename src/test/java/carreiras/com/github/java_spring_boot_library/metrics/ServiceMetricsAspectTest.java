@@ -0,0 +1,70 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanArchiveRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
+import carreiras.com.github.java_spring_boot_library.services.LoanService;
+import carreiras.com.github.java_spring_boot_library.services.OverdueLoanWheel;
+import carreiras.com.github.java_spring_boot_library.services.impl.LoanServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoanRepository loanRepository = Mockito.mock(LoanRepository.class);
+
+    private LoanService loanService;
+
+    @BeforeEach
+    public void setUp() {
+        LibraryMetrics metrics = new LibraryMetrics(meterRegistry);
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new LoanServiceImpl(loanRepository, Mockito.mock(LoanArchiveRepository.class),
+                        Mockito.mock(BookRepository.class), metrics, new OverdueLoanWheel()));
+        factory.addAspect(new ServiceMetricsAspect(metrics));
+        this.loanService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Deve medir o tempo das chamadas aos serviços por serviço e método")
+    public void timeServiceInvocationTest() {
+        // Cenário
+        Mockito.when(loanRepository.findByIdInAndNotReturned(List.of(1L))).thenReturn(List.of(Loan.builder().id(1L).build()));
+
+        // Execução
+        loanService.getLateLoans(List.of(1L));
+        loanService.getLateLoans(List.of(1L));
+
+        // Validações
+        Assertions.assertThat(meterRegistry.get(LibraryMetrics.SERVICE_INVOCATIONS)
+                .tags("service", "LoanServiceImpl", "method", "getLateLoans", "exception", "none")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve marcar com a exceção as chamadas aos serviços que falharem")
+    public void timeFailedServiceInvocationTest() {
+        // Cenário
+        Mockito.when(loanRepository.findByIdInAndNotReturned(List.of(1L))).thenThrow(new IllegalStateException());
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> loanService.getLateLoans(List.of(1L)));
+
+        // Validações
+        Assertions.assertThat(exception).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(meterRegistry.get(LibraryMetrics.SERVICE_INVOCATIONS)
+                .tags("service", "LoanServiceImpl", "method", "getLateLoans", "exception", "IllegalStateException")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+package carreiras.com.github.java_spring_boot_library.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import carreiras.com.github.java_spring_boot_library.configurations.SqlBudgetConfig;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ SqlBudgetConfig.class, LibraryMetrics.class, SqlStatisticsTest.MeterRegistryConfig.class })
+public class SqlStatisticsTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    public void tearDown() {
+        SqlRequestStats.end();
+    }
+
+    @Test
+    @DisplayName("Deve contar os comandos e as linhas lidas durante a requisição")
+    public void countStatementsAndRowsTest() {
+        // Cenário
+        testEntityManager.persist(createNewBook("001"));
+        testEntityManager.persist(createNewBook("002"));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        SqlRequestStats stats = SqlRequestStats.begin("GET /api/books", 20, false);
+
+        // Execução
+        bookRepository.findAll();
+        bookRepository.findIdByIsbn("001");
+
+        // Validações
+        Assertions.assertThat(stats.getStatements()).isEqualTo(2);
+        Assertions.assertThat(stats.getRows()).isEqualTo(3);
+        Assertions.assertThat(stats.getDatabaseNanos()).isPositive();
+        Assertions.assertThat(stats.exceeded()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve interromper a requisição que ultrapassar o orçamento de comandos")
+    public void failOnBudgetViolationTest() {
+        // Cenário
+        SqlRequestStats.begin("GET /api/books", 1, true);
+        bookRepository.findIdByIsbn("001");
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookRepository.findIdByIsbn("002"));
+
+        // Validações
+        Assertions.assertThat(exception)
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessage("SQL budget exceeded on GET /api/books: 2 statements (budget 1)");
+    }
+
+    @Test
+    @DisplayName("Não deve contar comandos executados fora de uma requisição")
+    public void ignoreStatementsOutsideRequestTest() {
+        // Execução
+        bookRepository.findIdByIsbn("001");
+
+        // Validações
+        Assertions.assertThat(SqlRequestStats.current()).isNull();
+    }
+
+    private Book createNewBook(String isbn) {
+        return Book.builder().isbn(isbn).autor("Fulano").title("Aventuras").build();
+    }
+
+    static class MeterRegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package carreiras.com.github.java_spring_boot_library.repositories;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
 import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -24,27 +35,17 @@ public class BookRepositoryTest {
     private BookRepository bookRepository;
 
     @Test
-    @DisplayName("Deve retornar verdadeiro quando existir um livro na base com o isbn informado")
-    public void returnTrueWhenIsbnExistsTest() {
+    @DisplayName("Deve rejeitar no banco um segundo livro com o mesmo isbn")
+    public void uniqueIsbnTest() {
         // Cenário
-        Book book = createNewBook();
-        testEntityManager.persist(book);
-
-        // Execução
-        boolean exists = bookRepository.existsByIsbn("123456789");
+        testEntityManager.persistAndFlush(createNewBook());
 
-        // Validações
-        Assertions.assertThat(exists).isTrue();
-    }
-
-    @Test
-    @DisplayName("Deve retornar false quando não existir um livro na base com o isbn informado")
-    public void returnFalseWhenIsbnDoesnotExistsTest() {
         // Execução
-        boolean exists = bookRepository.existsByIsbn("123456789");
+        Throwable exception = Assertions.catchThrowable(() -> bookRepository.saveAndFlush(createNewBook()));
 
         // Validações
-        Assertions.assertThat(exists).isFalse();
+        Assertions.assertThat(exception).isInstanceOf(DataIntegrityViolationException.class)
+                .hasCauseInstanceOf(ConstraintViolationException.class);
     }
 
     @Test
@@ -91,6 +92,139 @@ public class BookRepositoryTest {
         Assertions.assertThat(deletedBook).isNull();
     }
 
+    @Test
+    @DisplayName("Deve obter a próxima página de livros a partir do último id")
+    public void findNextPageTest() {
+        // Cenário
+        for (int i = 0; i < 5; i++) {
+            Book book = createNewBook();
+            book.setIsbn("isbn-" + i);
+            testEntityManager.persist(book);
+        }
+        Long firstId = bookRepository.findByIsbn("isbn-0").get().getId();
+
+        // Execução
+        Slice<Book> result = bookRepository.findNextPage("titulo", null, null, firstId, PageRequest.of(0, 2));
+
+        // Validações
+        Assertions.assertThat(result.getContent()).hasSize(2);
+        Assertions.assertThat(result.getContent()).extracting(Book::getIsbn).containsExactly("isbn-1", "isbn-2");
+        Assertions.assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve tratar _ no filtro da página por cursor como texto e não como curinga")
+    public void findNextPageEscapesLikeWildcardsTest() {
+        // Cenário
+        Book underscore = createNewBook();
+        underscore.setTitle("livro_1");
+        testEntityManager.persist(underscore);
+        Book other = createNewBook();
+        other.setTitle("livroX1");
+        other.setIsbn("987654321");
+        testEntityManager.persist(other);
+
+        // Execução
+        Slice<Book> result = bookRepository.findNextPage("o_1", null, null, 0L, PageRequest.of(0, 10));
+
+        // Validações
+        Assertions.assertThat(result.getContent()).extracting(Book::getTitle).containsExactly("livro_1");
+    }
+
+    @Test
+    @DisplayName("Deve retornar apenas os isbns já cadastrados")
+    public void findExistingIsbnsTest() {
+        // Cenário
+        testEntityManager.persist(createNewBook());
+
+        // Execução
+        Set<String> existing = bookRepository.findExistingIsbns(Arrays.asList("123456789", "987654321"));
+
+        // Validações
+        Assertions.assertThat(existing).containsExactly("123456789");
+    }
+
+    @Test
+    @DisplayName("Deve reservar um livro para um único empréstimo por vez")
+    public void reserveAndReleaseTest() {
+        // Cenário
+        Book book = testEntityManager.persistFlushFind(createNewBook());
+
+        // Execução
+        int reserved = bookRepository.reserve(book.getId(), 10L);
+        int reservedAgain = bookRepository.reserve(book.getId(), 11L);
+        Optional<Boolean> availableWhileLoaned = bookRepository.findAvailabilityById(book.getId());
+        int releasedByOtherLoan = bookRepository.release(book.getId(), 11L);
+        int released = bookRepository.release(book.getId(), 10L);
+
+        // Validações
+        Assertions.assertThat(reserved).isEqualTo(1);
+        Assertions.assertThat(reservedAgain).isZero();
+        Assertions.assertThat(availableWhileLoaned).contains(false);
+        Assertions.assertThat(releasedByOtherLoan).isZero();
+        Assertions.assertThat(released).isEqualTo(1);
+        Assertions.assertThat(bookRepository.findAvailabilityById(book.getId())).contains(true);
+        Assertions.assertThat(bookRepository.findAvailabilityById(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve avançar a versão a cada alteração e recusar a alteração de uma versão antiga")
+    public void optimisticLockTest() {
+        // Cenário
+        Book book = testEntityManager.persistFlushFind(createNewBook());
+        testEntityManager.detach(book);
+        Long firstVersion = book.getVersion();
+
+        Book stale = Book.builder()
+                .id(book.getId())
+                .title("Outro titulo")
+                .autor(book.getAutor())
+                .isbn(book.getIsbn())
+                .version(firstVersion)
+                .build();
+
+        // Execução
+        book.setTitle("Novo titulo");
+        Book updated = bookRepository.saveAndFlush(book);
+        testEntityManager.detach(updated);
+
+        // Validações
+        Assertions.assertThat(updated.getVersion()).isEqualTo(firstVersion + 1);
+        Assertions.assertThat(updated.getUpdatedAt()).isNotNull();
+        Assertions.assertThatThrownBy(() -> bookRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Deve buscar só as colunas dos campos pedidos, com o mesmo filtro da busca por exemplo")
+    public void findFieldsTest() {
+        // Cenário
+        Book book = testEntityManager.persist(createNewBook());
+        testEntityManager.persist(Book.builder().title("Outro").autor("Outro").isbn("987").build());
+        Book filter = Book.builder().title("TITU").build();
+
+        // Execução
+        Page<Map<String, Object>> result = bookRepository.findFields(filter, List.of("title", "id"), PageRequest.of(0, 10));
+
+        // Validações
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(result.getContent()).containsExactly(Map.of("id", book.getId(), "title", book.getTitle()));
+        Assertions.assertThat(result.getContent().get(0).keySet()).containsExactly("id", "title");
+    }
+
+    @Test
+    @DisplayName("Deve recusar campos que não existem no livro")
+    public void findUnknownFieldsTest() {
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookRepository.findFields(
+                new Book(), List.of("title", "version"), PageRequest.of(0, 10)));
+
+        // Validações
+        Assertions.assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("version");
+    }
+
     public static Book createNewBook() {
         return Book.builder()
                 .title("Titulo")
@@ -3,9 +3,13 @@ package carreiras.com.github.java_spring_boot_library.repositories;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,83 +17,296 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.entities.LoanArchive;
 
-@DataJpaTest
 @ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 // @ExtendWith(SpringExtension.class)
 public class LoanRepositoryTest {
 
     @Autowired
     private LoanRepository loanRepository;
 
+    @Autowired
+    private LoanArchiveRepository loanArchiveRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
     @Autowired
     private TestEntityManager testEntityManager;
 
     @Test
-    @DisplayName("Deve verificar se existe um emprestimo não retornado para o livro passado.")
-    public void existsByBookAndNotReturnedTest() {
+    @DisplayName("Deve buscar empréstimo pelo isbn do livro e custumer")
+    public void findByFilterTest() {
         // Cenário
         Loan loan = createAndPersistLoan(LocalDate.now());
-        Book book = loan.getBook();
 
         // Execução
-        boolean exists = loanRepository.existsByBookAndNotReturned(book);
+        Page<Loan> result = loanRepository.findByFilter(
+                LoanFilterDTO.builder().isbn("123456789").customer("Fulano").build(),
+                PageRequest.of(0, 10));
 
         // Validações
-        assertThat(exists).isTrue();
+        Assertions.assertThat(result.getContent()).hasSize(1);
+        Assertions.assertThat(result.getContent()).contains(loan);
+        Assertions.assertThat(result.getPageable().getPageSize()).isEqualTo(10);
+        Assertions.assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(1);
     }
 
     @Test
-    @DisplayName("Deve buscar empréstimo pelo isbn do livro ou custumer")
-    public void findByBookIsbnOrCustomerTest() {
+    @DisplayName("Deve combinar os filtros de isbn, customer, período e devolução")
+    public void findByFilterCombiningFiltersTest() {
         // Cenário
-        Loan loan = createAndPersistLoan(LocalDate.now());
+        Loan old = createAndPersistLoan("isbn-1", LocalDate.now().minusDays(10), true);
+        Loan open = createAndPersistLoan("isbn-2", LocalDate.now(), null);
+        Loan returned = createAndPersistLoan("isbn-3", LocalDate.now(), true);
+        testEntityManager.persist(Loan.builder()
+                .book(open.getBook())
+                .customer("Beltrano")
+                .loanDate(LocalDate.now())
+                .build());
 
         // Execução
-        Page<Loan> result = loanRepository.findByBookIsbnOrCustomer(
-                "123456789",
-                "Fulano",
-                PageRequest.of(0, 10));
+        Page<Loan> byIsbn = loanRepository.findByFilter(
+                LoanFilterDTO.builder().isbn("isbn-2").customer("Fulano").build(), PageRequest.of(0, 10));
+        Page<Loan> byPeriod = loanRepository.findByFilter(
+                LoanFilterDTO.builder()
+                        .customer("Fulano")
+                        .loanDateFrom(LocalDate.now().minusDays(5))
+                        .loanDateTo(LocalDate.now())
+                        .build(),
+                PageRequest.of(0, 10, Sort.by("id")));
+        Page<Loan> notReturned = loanRepository.findByFilter(
+                LoanFilterDTO.builder().customer("Fulano").returned(false).build(), PageRequest.of(0, 10));
+        Page<Loan> isbnWithoutMatch = loanRepository.findByFilter(
+                LoanFilterDTO.builder().isbn("isbn-1").customer("Beltrano").build(), PageRequest.of(0, 10));
 
         // Validações
-        Assertions.assertThat(result.getContent()).hasSize(1);
-        Assertions.assertThat(result.getContent()).contains(loan);
-        Assertions.assertThat(result.getPageable().getPageSize()).isEqualTo(10);
-        Assertions.assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
-        Assertions.assertThat(result.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(byIsbn.getContent()).containsExactly(open);
+        Assertions.assertThat(byPeriod.getContent()).containsExactly(open, returned).doesNotContain(old);
+        Assertions.assertThat(byPeriod.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(notReturned.getContent()).containsExactly(open);
+        Assertions.assertThat(isbnWithoutMatch.getContent()).isEmpty();
     }
 
     @Test
-    @DisplayName("Deve obter empréstimos cuja data de empréstimo for menor ou igual a três dias atrás e não retornado")
-    public void findByLoanDateLessThanAndNotReturnedTest() {
+    @DisplayName("Deve buscar a próxima página do filtro a partir do último id")
+    public void findNextPageByFilterTest() {
         // Cenário
-        Loan loan = createAndPersistLoan(LocalDate.now().minusDays(5));
+        List<Loan> loans = createAndPersistLoans(3);
 
         // Execução
-        List<Loan> result = loanRepository.findByLoanDateLessThanAndNotReturned(
-                LocalDate.now().minusDays(4));
+        Slice<Loan> result = loanRepository.findNextPageByFilter(
+                LoanFilterDTO.builder().customer("Fulano").build(), loans.get(0).getId(), 1);
 
         // Validações
-        Assertions.assertThat(result).hasSize(1).contains(loan);
+        Assertions.assertThat(result.getContent()).containsExactly(loans.get(1));
+        Assertions.assertThat(result.hasNext()).isTrue();
     }
 
     @Test
-    @DisplayName("Deve retornar vazio quando não houver empréstimos atrasados")
-    public void notFindByLoanDateLessThanAndNotReturnedTest() {
+    @DisplayName("Deve obter os vencimentos dos empréstimos em aberto a partir de uma data")
+    public void findDueDatesNotReturnedFromTest() {
         // Cenário
-        Loan loan = createAndPersistLoan(LocalDate.now());
+        createAndPersistLoan("isbn-1", LocalDate.now().minusDays(2), null);
+        Loan open = createAndPersistLoan("isbn-2", LocalDate.now(), null);
+        createAndPersistLoan("isbn-3", LocalDate.now().plusDays(1), true);
+
+        // Execução
+        List<LoanRepository.DueDate> result = loanRepository.findDueDatesNotReturnedFrom(LocalDate.now().minusDays(1));
+
+        // Validações
+        Assertions.assertThat(result).hasSize(1);
+        Assertions.assertThat(result.get(0).getId()).isEqualTo(open.getId());
+        Assertions.assertThat(result.get(0).getDueDate()).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    @DisplayName("Deve obter só os empréstimos ainda em aberto entre os ids informados")
+    public void findByIdInAndNotReturnedTest() {
+        // Cenário
+        Loan open = createAndPersistLoan("isbn-1", LocalDate.now(), null);
+        Loan returned = createAndPersistLoan("isbn-2", LocalDate.now(), true);
+        Loan other = createAndPersistLoan("isbn-3", LocalDate.now(), null);
+
+        // Execução
+        List<Loan> result = loanRepository.findByIdInAndNotReturned(List.of(open.getId(), returned.getId()));
+
+        // Validações
+        Assertions.assertThat(result).containsExactly(open).doesNotContain(other);
+    }
+
+    @Test
+    @DisplayName("Deve buscar empréstimos pelo customer com número fixo de comandos SQL")
+    public void findByFilterStatementCountTest() {
+        // Cenário
+        createAndPersistLoans(5);
+        Statistics statistics = clearAndGetStatistics();
 
         // Execução
-        List<Loan> result = loanRepository.findByLoanDateLessThanAndNotReturned(
-                LocalDate.now().minusDays(4));
+        Page<Loan> result = loanRepository.findByFilter(LoanFilterDTO.builder().customer("Fulano").build(),
+                PageRequest.of(0, 3));
+        result.getContent().forEach(loan -> loan.getBook().getTitle());
 
         // Validações
-        Assertions.assertThat(result).isEmpty();
-        ;
+        Assertions.assertThat(result.getContent()).hasSize(3);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve buscar empréstimos de um livro com número fixo de comandos SQL")
+    public void findByBookStatementCountTest() {
+        // Cenário
+        Book book = createAndPersistLoans(1).get(0).getBook();
+        for (int i = 0; i < 4; i++) {
+            testEntityManager.persist(Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build());
+        }
+        Statistics statistics = clearAndGetStatistics();
+
+        // Execução
+        Page<Loan> result = loanRepository.findByBook(book, PageRequest.of(0, 3));
+        result.getContent().forEach(loan -> loan.getBook().getTitle());
+
+        // Validações
+        Assertions.assertThat(result.getContent()).hasSize(3);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve buscar só os campos pedidos dos empréstimos, sem carregar entidades")
+    public void findFieldsTest() {
+        // Cenário
+        List<Loan> loans = createAndPersistLoans(5);
+        Statistics statistics = clearAndGetStatistics();
+
+        // Execução
+        Page<Map<String, Object>> result = loanRepository.findFields(
+                LoanFilterDTO.builder().customer("Fulano").build(),
+                List.of("book.title", "id"),
+                PageRequest.of(0, 3, Sort.by("id")));
+
+        // Validações
+        Assertions.assertThat(result.getContent()).hasSize(3);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(result.getContent().get(0))
+                .isEqualTo(Map.of("id", loans.get(0).getId(), "book", Map.of("title", "Titulo 0")));
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve devolver empréstimos e liberar os livros com um update cada, sem carregar entidades")
+    public void markReturnedAndReleaseAllTest() {
+        // Cenário
+        Loan first = createAndPersistLoan("isbn-1", LocalDate.now(), null);
+        Loan second = createAndPersistLoan("isbn-2", LocalDate.now(), null);
+        Loan other = createAndPersistLoan("isbn-3", LocalDate.now(), null);
+        for (Loan loan : List.of(first, second, other))
+            bookRepository.reserve(loan.getBook().getId(), loan.getId());
+        Statistics statistics = clearAndGetStatistics();
+        List<Long> loanIds = List.of(first.getId(), second.getId(), -1L);
+
+        // Execução
+        int returned = loanRepository.markReturned(loanIds);
+        int released = bookRepository.releaseAll(loanIds);
+
+        // Validações
+        Assertions.assertThat(returned).isEqualTo(2);
+        Assertions.assertThat(released).isEqualTo(2);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+        Assertions.assertThat(loanRepository.findById(first.getId()).get().getReturned()).isTrue();
+        Assertions.assertThat(loanRepository.findById(other.getId()).get().getReturned()).isNull();
+        Assertions.assertThat(bookRepository.findAvailabilityById(first.getBook().getId())).contains(true);
+        Assertions.assertThat(bookRepository.findAvailabilityById(other.getBook().getId())).contains(false);
+    }
+
+    @Test
+    @DisplayName("Deve mover para o arquivo os empréstimos devolvidos que venceram antes da data")
+    public void archiveReturnedLoansTest() {
+        // Cenário
+        Loan old = createAndPersistLoan("isbn-1", LocalDate.now().minusDays(100), true);
+        Loan open = createAndPersistLoan("isbn-2", LocalDate.now().minusDays(100), null);
+        Loan recent = createAndPersistLoan("isbn-3", LocalDate.now().minusDays(1), true);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Execução
+        List<Long> loanIds = loanRepository.findIdsReturnedDueBefore(LocalDate.now().minusDays(90),
+                PageRequest.of(0, 10));
+        int archived = loanArchiveRepository.archive(loanIds, LocalDate.now());
+        int deleted = loanRepository.deleteByIds(loanIds);
+
+        // Validações
+        Assertions.assertThat(loanIds).containsExactly(old.getId());
+        Assertions.assertThat(archived).isEqualTo(1);
+        Assertions.assertThat(deleted).isEqualTo(1);
+        Assertions.assertThat(loanRepository.findAll()).extracting(Loan::getId)
+                .containsExactlyInAnyOrder(open.getId(), recent.getId());
+
+        List<LoanArchive> result = loanArchiveRepository.findByBookId(old.getBook().getId(), 10, 0);
+        Assertions.assertThat(result).hasSize(1);
+        Assertions.assertThat(result.get(0).getId()).isEqualTo(old.getId());
+        Assertions.assertThat(result.get(0).getCustomer()).isEqualTo("Fulano");
+        Assertions.assertThat(result.get(0).getDueDate()).isEqualTo(old.getDueDate());
+        Assertions.assertThat(result.get(0).getArchivedOn()).isEqualTo(LocalDate.now());
+        Assertions.assertThat(loanArchiveRepository.countByBookId(old.getBook().getId())).isEqualTo(1);
+    }
+
+    private List<Loan> createAndPersistLoans(int quantity) {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < quantity; i++) {
+            Book book = Book.builder()
+                    .title("Titulo " + i)
+                    .autor("Autor")
+                    .isbn("isbn-" + i)
+                    .build();
+            Loan loan = Loan.builder()
+                    .book(book)
+                    .customer("Fulano")
+                    .loanDate(LocalDate.now())
+                    .build();
+
+            testEntityManager.persist(book);
+            testEntityManager.persist(loan);
+            loans.add(loan);
+        }
+        return loans;
+    }
+
+    private Loan createAndPersistLoan(String isbn, LocalDate dueDate, Boolean returned) {
+        Book book = Book.builder().title("Titulo").autor("Autor").isbn(isbn).build();
+        testEntityManager.persist(book);
+        return testEntityManager.persist(Loan.builder()
+                .book(book)
+                .customer("Fulano")
+                .loanDate(dueDate.minusDays(3))
+                .dueDate(dueDate)
+                .returned(returned)
+                .build());
+    }
+
+    private Statistics clearAndGetStatistics() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Statistics statistics = testEntityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        return statistics;
     }
 
     public Loan createAndPersistLoan(LocalDate loanDate) {
@@ -98,6 +315,7 @@ public class LoanRepositoryTest {
                 .book(book)
                 .customer("Fulano")
                 .loanDate(loanDate)
+                .dueDate(loanDate.plusDays(3))
                 .build();
 
         testEntityManager.persist(book);
@@ -0,0 +1,156 @@
+package carreiras.com.github.java_spring_boot_library.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
+import carreiras.com.github.java_spring_boot_library.entities.BookRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanRow;
+import carreiras.com.github.java_spring_boot_library.entities.LoanView;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.services.LoanService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveBookService;
+import carreiras.com.github.java_spring_boot_library.services.ReactiveLoanService;
+
+/**
+ * Os repositórios R2DBC rodam sobre o esquema criado pelo JPA, então são
+ * testados com o contexto completo do perfil "reactive".
+ */
+@ActiveProfiles("reactive")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class ReactiveRepositoriesTest {
+
+    @Autowired
+    ReactiveBookService bookService;
+
+    @Autowired
+    ReactiveLoanService loanService;
+
+    @Autowired
+    ReactiveBookRepository bookRepository;
+
+    @Autowired
+    LoanService archivingLoanService;
+
+    @Test
+    @DisplayName("Deve recusar um segundo livro com o mesmo isbn")
+    public void uniqueIsbnTest() {
+        // Cenário
+        bookService.save(createNewBook("R-001")).block();
+
+        // Execução e validações
+        assertThatThrownBy(() -> bookService.save(createNewBook("R-001")).block())
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("ISBN já cadastrado");
+        assertThat(bookRepository.findByIsbn("R-001").block()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar o livro uma única vez até que ele seja devolvido")
+    public void reserveAndReleaseTest() {
+        // Cenário
+        BookRow book = bookService.save(createNewBook("R-002")).block();
+
+        // Execução
+        LoanRow loan = loanService.save(createLoan(book, "Fulano")).block();
+
+        // Validações
+        assertThat(bookService.isAvailable(book.getId()).block()).isFalse();
+        assertThatThrownBy(() -> loanService.save(createLoan(book, "Beltrano")).block())
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Book already loaned");
+
+        assertThat(loanService.returnLoans(List.of(loan.getId())).block()).isEqualTo(1);
+        assertThat(bookService.isAvailable(book.getId()).block()).isTrue();
+        assertThat(loanService.save(createLoan(book, "Beltrano")).block().getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve buscar os empréstimos junto com o livro por isbn ou cliente")
+    public void findLoanViewsTest() {
+        // Cenário
+        BookRow book = bookService.save(createNewBook("R-003")).block();
+        LoanRow loan = createLoan(book, "Sicrano");
+        loan.setCustomerEmail("sicrano@email.com");
+        loanService.save(loan).block();
+
+        // Execução
+        Page<LoanView> result = loanService.find(
+                LoanFilterDTO.builder().isbn("R-003").customer("Sicrano").build(),
+                PageRequest.of(0, 10)).block();
+
+        // Validações
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0).getBookId()).isEqualTo(book.getId());
+        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Aventuras");
+        assertThat(result.getContent().get(0).getCustomer()).isEqualTo("Sicrano");
+        assertThat(result.getContent().get(0).getCustomerEmail()).isEqualTo("sicrano@email.com");
+    }
+
+    @Test
+    @DisplayName("Deve combinar os filtros de período e devolução na busca reativa")
+    public void findLoanViewsByPeriodTest() {
+        // Cenário
+        BookRow book = bookService.save(createNewBook("R-005")).block();
+        LoanRow loan = loanService.save(createLoan(book, "Zeca")).block();
+        LoanFilterDTO open = LoanFilterDTO.builder().customer("Zeca").loanDateFrom(LocalDate.now()).returned(false).build();
+        LoanFilterDTO returned = LoanFilterDTO.builder().isbn("R-005").returned(true).build();
+
+        // Execução
+        Page<LoanView> openResult = loanService.find(open, PageRequest.of(0, 10)).block();
+        Page<LoanView> returnedResult = loanService.find(returned, PageRequest.of(0, 10)).block();
+
+        // Validações
+        assertThat(openResult.getTotalElements()).isEqualTo(1);
+        assertThat(openResult.getContent()).extracting(LoanView::getId).containsExactly(loan.getId());
+        assertThat(returnedResult.getTotalElements()).isZero();
+        assertThat(loanService.find(open, 0L, 10).block().getContent()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deve listar os empréstimos arquivados do livro depois dos ativos")
+    public void loansByBookWithArchiveTest() {
+        // Cenário
+        BookRow book = bookService.save(createNewBook("R-004")).block();
+        LoanRow old = createLoan(book, "Fulano");
+        old.setLoanDate(LocalDate.now().minusDays(200));
+        old = loanService.save(old).block();
+        loanService.returnLoans(List.of(old.getId())).block();
+        LoanRow open = loanService.save(createLoan(book, "Beltrano")).block();
+        archivingLoanService.archiveReturnedLoans(LocalDate.now().minusDays(90), 10);
+
+        // Execução
+        Page<LoanView> first = loanService.getLoansByBook(book.getId(), PageRequest.of(0, 1)).block();
+        Page<LoanView> second = loanService.getLoansByBook(book.getId(), PageRequest.of(1, 1)).block();
+
+        // Validações
+        assertThat(first.getTotalElements()).isEqualTo(2);
+        assertThat(first.getContent()).extracting(LoanView::getId).containsExactly(open.getId());
+        assertThat(second.getTotalElements()).isEqualTo(2);
+        assertThat(second.getContent()).extracting(LoanView::getId).containsExactly(old.getId());
+        assertThat(second.getContent().get(0).getReturned()).isTrue();
+        assertThat(second.getContent().get(0).getTitle()).isEqualTo("Aventuras");
+    }
+
+    private BookRow createNewBook(String isbn) {
+        return BookRow.builder().isbn(isbn).autor("Fulano").title("Aventuras").build();
+    }
+
+    private LoanRow createLoan(BookRow book, String customer) {
+        return LoanRow.builder().bookId(book.getId()).customer(customer).loanDate(LocalDate.now()).build();
+    }
+}
@@ -0,0 +1,75 @@
+package carreiras.com.github.java_spring_boot_library.search;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+
+public class BookSearchIndexTest {
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @Test
+    @DisplayName("Deve encontrar livros ignorando maiúsculas, acentos e pontuação")
+    public void searchNormalizesTermsTest() {
+        index.index(book(1L, "O Cortiço", "Aluísio Azevedo"));
+
+        Assertions.assertThat(index.search("CORTICO", 10).getIds()).containsExactly(1L);
+        Assertions.assertThat(index.search("aluisio, azevedo!", 10).getIds()).containsExactly(1L);
+        Assertions.assertThat(index.search("   ", 10).getIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve pontuar termos do título acima dos termos do autor")
+    public void searchRanksTitleAboveAutorTest() {
+        index.index(book(1L, "Memórias", "Machado de Assis"));
+        index.index(book(2L, "Machado", "Outro Autor"));
+
+        Assertions.assertThat(index.search("machado", 10).getIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Deve devolver o total de resultados e apenas os mais relevantes até o limite")
+    public void searchLimitsResultsTest() {
+        for (long id = 1; id <= 5; id++)
+            index.index(book(id, id == 4 ? "Duna Duna" : "Duna", "Frank Herbert"));
+
+        BookSearchIndex.Hits hits = index.search("duna", 2);
+
+        Assertions.assertThat(hits.getTotal()).isEqualTo(5);
+        Assertions.assertThat(hits.getIds()).containsExactly(4L, 1L);
+    }
+
+    @Test
+    @DisplayName("Deve refletir atualizações e remoções de livros")
+    public void reindexAndRemoveTest() {
+        index.index(book(1L, "Titulo Antigo", "Autor"));
+        index.index(book(1L, "Titulo Novo", "Autor"));
+
+        Assertions.assertThat(index.search("antigo", 10).getIds()).isEmpty();
+        Assertions.assertThat(index.search("novo", 10).getIds()).containsExactly(1L);
+
+        index.remove(1L);
+
+        Assertions.assertThat(index.search("novo autor", 10).getIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar as posições liberadas pelas remoções")
+    public void removedSlotsAreReusedTest() {
+        index.index(book(1L, "Duna", "Frank Herbert"));
+        index.index(book(2L, "Fundação", "Isaac Asimov"));
+        index.remove(1L);
+        index.index(book(3L, "Neuromancer", "William Gibson"));
+
+        Assertions.assertThat(index.slotCount()).isEqualTo(2);
+        Assertions.assertThat(index.search("duna", 10).getIds()).isEmpty();
+        Assertions.assertThat(index.search("neuromancer", 10).getIds()).containsExactly(3L);
+        Assertions.assertThat(index.search("asimov gibson", 10).getIds()).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private Book book(Long id, String title, String autor) {
+        return Book.builder().id(id).title(title).autor(autor).isbn(String.valueOf(id)).build();
+    }
+}
@@ -0,0 +1,176 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import carreiras.com.github.java_spring_boot_library.configurations.CacheConfig;
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndex;
+import carreiras.com.github.java_spring_boot_library.services.impl.BookServiceImpl;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+public class BookServiceCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private LibraryMetrics libraryMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Deve obter um livro por id do cache a partir da segunda consulta")
+    public void getByIdFromCacheTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        // Execução
+        bookService.getById(1L);
+        Optional<Book> foundBook = bookService.getById(1L);
+
+        // Validações
+        Assertions.assertThat(foundBook).contains(book);
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar no cache um livro inexistente")
+    public void bookNotFoundIsNotCachedTest() {
+        // Cenário
+        Mockito.when(bookRepository.findByIsbn("123456789")).thenReturn(Optional.empty());
+
+        // Execução
+        bookService.getBookByIsbn("123456789");
+        bookService.getBookByIsbn("123456789");
+
+        // Validações
+        Mockito.verify(bookRepository, Mockito.times(2)).findByIsbn("123456789");
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache por id e por isbn ao atualizar um livro")
+    public void updateEvictsCacheTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.findByIsbn("123456789")).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(book);
+        bookService.getById(1L);
+        bookService.getBookByIsbn("123456789");
+
+        // Execução
+        bookService.update(book);
+        bookService.getById(1L);
+        bookService.getBookByIsbn("123456789");
+
+        // Validações
+        Mockito.verify(bookRepository, Mockito.times(2)).findById(1L);
+        Mockito.verify(bookRepository, Mockito.times(2)).findByIsbn("123456789");
+    }
+
+    @Test
+    @DisplayName("Deve entregar uma cópia do livro em cache, sem expor a instância guardada")
+    public void getByIdReturnsCopyTest() {
+        // Cenário
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(createValidBook()));
+        bookService.getById(1L);
+
+        // Execução
+        Book first = bookService.getById(1L).get();
+        first.setTitle("Alterado sem salvar");
+        Book second = bookService.getById(1L).get();
+
+        // Validações
+        Assertions.assertThat(second).isNotSameAs(first);
+        Assertions.assertThat(second.getTitle()).isEqualTo("Titulo");
+    }
+
+    @Test
+    @DisplayName("Deve tirar o livro do cache mesmo quando a trava otimista recusa a atualização")
+    public void failedUpdateEvictsCacheTest() {
+        // Cenário
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(createValidBook()));
+        Book book = bookService.getById(1L).get();
+        Mockito.when(bookRepository.saveAndFlush(book))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookService.update(book));
+
+        // Validações
+        Assertions.assertThat(exception).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache por id e por isbn ao deletar um livro")
+    public void deleteEvictsCacheTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        bookService.getById(1L);
+
+        // Execução
+        bookService.delete(book);
+
+        // Validações
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(1L)).isNull();
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN_CACHE).get("123456789")).isNull();
+    }
+
+    private Book createValidBook() {
+        return Book.builder()
+                .id(1L)
+                .title("Titulo")
+                .autor("Autor")
+                .isbn("123456789")
+                .build();
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import({ BookServiceImpl.class, BookSearchIndex.class })
+    static class CacheTestConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.BOOKS_CACHE, CacheConfig.BOOKS_BY_ISBN_CACHE);
+        }
+    }
+}
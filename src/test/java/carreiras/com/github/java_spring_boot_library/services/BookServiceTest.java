@@ -2,28 +2,38 @@ package carreiras.com.github.java_spring_boot_library.services;
 
 import static org.mockito.Mockito.times;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
 import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.search.BookSearchIndex;
 import carreiras.com.github.java_spring_boot_library.services.impl.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ActiveProfiles("test")
 @ExtendWith(SpringExtension.class)
@@ -34,9 +44,14 @@ public class BookServiceTest {
     @MockBean
     private BookRepository bookRepository;
 
+    private BookSearchIndex bookSearchIndex = new BookSearchIndex();
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     public void setup() {
-        this.bookService = new BookServiceImpl(bookRepository);
+        this.bookService = new BookServiceImpl(bookRepository, bookSearchIndex, new LibraryMetrics(meterRegistry),
+                new NoOpCacheManager());
     }
 
     @Test
@@ -51,8 +66,7 @@ public class BookServiceTest {
                 .isbn("123456789")
                 .build();
 
-        Mockito.when(bookRepository.existsByIsbn(Mockito.anyString())).thenReturn(false);
-        Mockito.when(bookRepository.save(savingBook)).thenReturn(bookReturned);
+        Mockito.when(bookRepository.saveAndFlush(savingBook)).thenReturn(bookReturned);
 
         // Execução
         Book savedBook = bookService.save(savingBook);
@@ -64,12 +78,37 @@ public class BookServiceTest {
         Assertions.assertThat(savedBook.getIsbn()).isEqualTo(savingBook.getIsbn());
     }
 
+    @Test
+    @DisplayName("Deve indexar o livro salvo só depois do commit da transação")
+    public void saveIndexesAfterCommitTest() {
+        // Cenário
+        Book savingBook = createValidBook();
+        Book bookReturned = Book.builder().id(1L).title("Titulo").autor("Autor").isbn("123456789").build();
+
+        Mockito.when(bookRepository.saveAndFlush(savingBook)).thenReturn(bookReturned);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Execução
+            bookService.save(savingBook);
+            List<Long> beforeCommit = bookSearchIndex.search("titulo", 10).getIds();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Validações
+            Assertions.assertThat(beforeCommit).isEmpty();
+            Assertions.assertThat(bookSearchIndex.search("titulo", 10).getIds()).containsExactly(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     @DisplayName("Deve lançar erro de negócio ao tentar salvar um livro com ISBN duplicado")
     public void shouldNotSaveABookWithDuplicatedIsbnTest() {
         // Cenário
         Book book = createValidBook();
-        Mockito.when(bookRepository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(book))
+                .thenThrow(constraintViolation("PUBLIC.UK_BOOK_ISBN_INDEX_1 ON PUBLIC.BOOK(ISBN) VALUES 1"));
 
         // Execução
         Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
@@ -77,7 +116,22 @@ public class BookServiceTest {
         // Validações
         Assertions.assertThat(exception).isInstanceOf(BusinessException.class)
                 .hasMessage("ISBN já cadastrado. Por favor, revise o ISBN do livro ou contate a sua gerência.");
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Assertions.assertThat(meterRegistry.counter(LibraryMetrics.BUSINESS_FAILURES,
+                "reason", LibraryMetrics.DUPLICATED_ISBN).count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve propagar violações de integridade que não são do ISBN")
+    public void shouldPropagateOtherIntegrityViolationsTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(constraintViolation("PUBLIC.OUTRA_CONSTRAINT"));
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        // Validações
+        Assertions.assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @Test
@@ -155,7 +209,7 @@ public class BookServiceTest {
         Book updatedBook = createValidBook();
         updatedBook.setId(id);
 
-        Mockito.when(bookRepository.save(updatingBook)).thenReturn(updatedBook);
+        Mockito.when(bookRepository.saveAndFlush(updatingBook)).thenReturn(updatedBook);
 
         // Execução
         Book book = bookService.update(updatingBook);
@@ -177,7 +231,7 @@ public class BookServiceTest {
         org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> bookService.update(book));
 
         // Validações
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Mockito.verify(bookRepository, Mockito.never()).saveAndFlush(book);
     }
 
     @Test
@@ -222,6 +276,33 @@ public class BookServiceTest {
         Mockito.verify(bookRepository, times(1)).findByIsbn(isbn);
     }
 
+    @Test
+    @DisplayName("Deve buscar livros pelos termos do título e do autor, do mais relevante ao menos relevante")
+    public void searchBookTest() {
+        // Cenário
+        Book machado = Book.builder().id(1L).title("Dom Casmurro").autor("Machado de Assis").isbn("1").build();
+        Book casmurro = Book.builder().id(2L).title("Casmurro e Assis").autor("Outro").isbn("2").build();
+        Book outro = Book.builder().id(3L).title("Iracema").autor("José de Alencar").isbn("3").build();
+        bookSearchIndex.index(machado);
+        bookSearchIndex.index(casmurro);
+        bookSearchIndex.index(outro);
+
+        Mockito.when(bookRepository.findAllById(List.of(2L, 1L)))
+                .thenReturn(new ArrayList<>(List.of(machado, casmurro)));
+
+        // Execução
+        Page<Book> result = bookService.search("casmurro assis", PageRequest.of(0, 10));
+
+        // Validações
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(result.getContent()).containsExactly(casmurro, machado);
+    }
+
+    private DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
+
     private Book createValidBook() {
         return Book.builder()
                 .title("Titulo")
@@ -0,0 +1,181 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.services.impl.EmailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deve enviar os e-mails em lotes de destinatários ao servidor SMTP")
+    public void sendEmailsInBatchesTest() throws Exception {
+        // Cenário
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        javaMailSender.setDefaultEncoding("UTF-8");
+        EmailService emailService = createEmailService(javaMailSender, 3);
+
+        List<String> emails = IntStream.range(0, 7)
+                .mapToObj(i -> "cliente" + i + "@email.com")
+                .collect(Collectors.toList());
+
+        // Execução
+        MailDispatchReport report = emailService.sendEmails("Empréstimo atrasado", emails).join();
+
+        // Validações
+        Assertions.assertThat(report.getRecipients()).isEqualTo(7);
+        Assertions.assertThat(report.getSent()).isEqualTo(7);
+        Assertions.assertThat(report.getFailed()).isZero();
+        Assertions.assertThat(report.getBatches()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.counter(LibraryMetrics.MAIL_RECIPIENTS, "outcome", "sent").count())
+                .isEqualTo(7);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertThat(received).hasSize(7);
+        Assertions.assertThat(received[0].getSubject()).isEqualTo("Livro com empréstimo atrasado");
+        Assertions.assertThat(received[0].getRecipients(Message.RecipientType.TO)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve reenviar apenas os lotes que falharam")
+    public void retryFailedBatchesTest() {
+        // Cenário
+        JavaMailSender javaMailSender = Mockito.mock(JavaMailSender.class);
+        EmailService emailService = createEmailService(javaMailSender, 2);
+
+        List<SimpleMailMessage[]> attempts = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            SimpleMailMessage[] messages = Arrays.copyOf(arguments, arguments.length, SimpleMailMessage[].class);
+            attempts.add(messages);
+            if (attempts.size() == 1)
+                throw new MailSendException(Map.of(messages[1], new RuntimeException("451 try again")));
+            return null;
+        }).when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        // Execução
+        MailDispatchReport report = emailService.sendEmails("Empréstimo atrasado",
+                List.of("a@email.com", "b@email.com", "c@email.com")).join();
+
+        // Validações
+        Assertions.assertThat(report.getSent()).isEqualTo(3);
+        Assertions.assertThat(attempts).hasSize(2);
+        Assertions.assertThat(attempts.get(0)).hasSize(2);
+        Assertions.assertThat(attempts.get(1)).hasSize(1);
+        Assertions.assertThat(attempts.get(1)[0].getBcc()).containsExactly("c@email.com");
+    }
+
+    @Test
+    @DisplayName("Deve reportar como falha os destinatários de um lote que esgota as tentativas")
+    public void giveUpAfterMaxAttemptsTest() {
+        // Cenário
+        JavaMailSender javaMailSender = Mockito.mock(JavaMailSender.class);
+        EmailService emailService = createEmailService(javaMailSender, 2);
+
+        Mockito.doThrow(new MailSendException("connection refused"))
+                .when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        // Execução
+        MailDispatchReport report = emailService.sendEmails("Empréstimo atrasado",
+                List.of("a@email.com", "b@email.com", "c@email.com")).join();
+
+        // Validações
+        Assertions.assertThat(report.getSent()).isZero();
+        Assertions.assertThat(report.getFailed()).isEqualTo(3);
+        Mockito.verify(javaMailSender, Mockito.times(3)).send((SimpleMailMessage[]) Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Deve contar como falha os endereços recusados e reenviar só os válidos não entregues")
+    public void invalidRecipientsTest() throws Exception {
+        // Cenário
+        JavaMailSender javaMailSender = Mockito.mock(JavaMailSender.class);
+        EmailService emailService = createEmailService(javaMailSender, 3);
+
+        List<SimpleMailMessage[]> attempts = new ArrayList<>();
+        Address[] validUnsent = { new InternetAddress("a@email.com"), new InternetAddress("c@email.com") };
+        Address[] invalid = { new InternetAddress("b@email.com") };
+        Mockito.doAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            SimpleMailMessage[] messages = Arrays.copyOf(arguments, arguments.length, SimpleMailMessage[].class);
+            attempts.add(messages);
+            if (attempts.size() == 1)
+                throw new MailSendException(Map.of(messages[0],
+                        new SendFailedException("Invalid Addresses", null, null, validUnsent, invalid)));
+            return null;
+        }).when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        // Execução
+        MailDispatchReport report = emailService.sendEmails("Empréstimo atrasado",
+                List.of("a@email.com", "b@email.com", "c@email.com")).join();
+
+        // Validações
+        Assertions.assertThat(report.getSent()).isEqualTo(2);
+        Assertions.assertThat(report.getFailed()).isEqualTo(1);
+        Assertions.assertThat(attempts).hasSize(2);
+        Assertions.assertThat(attempts.get(1)[0].getBcc()).containsExactly("a@email.com", "c@email.com");
+        Assertions.assertThat(attempts.get(1)[0].getText()).isEqualTo("Empréstimo atrasado");
+    }
+
+    @Test
+    @DisplayName("Não deve reenviar um lote recusado permanentemente pelo servidor")
+    public void permanentFailureIsNotRetriedTest() {
+        // Cenário
+        JavaMailSender javaMailSender = Mockito.mock(JavaMailSender.class);
+        EmailService emailService = createEmailService(javaMailSender, 3);
+
+        Mockito.doAnswer(invocation -> {
+            throw new MailSendException(Map.of(invocation.getArgument(0),
+                    new SMTPSendFailedException("DATA", 554, "554 message rejected", null, null, null, null)));
+        }).when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        // Execução
+        MailDispatchReport report = emailService.sendEmails("Empréstimo atrasado",
+                List.of("a@email.com", "b@email.com", "c@email.com")).join();
+
+        // Validações
+        Assertions.assertThat(report.getSent()).isZero();
+        Assertions.assertThat(report.getFailed()).isEqualTo(3);
+        Mockito.verify(javaMailSender, Mockito.times(1)).send((SimpleMailMessage[]) Mockito.any());
+    }
+
+    private EmailService createEmailService(JavaMailSender javaMailSender, int batchSize) {
+        EmailServiceImpl emailService = new EmailServiceImpl(javaMailSender, new LibraryMetrics(meterRegistry), batchSize, 1, 10, 3, 1, false);
+        ReflectionTestUtils.setField(emailService, "remetent", "mail@library-api.com");
+        return emailService;
+    }
+}
@@ -0,0 +1,120 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import carreiras.com.github.java_spring_boot_library.entities.Book;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
+
+/**
+ * O checkout depende do isolamento do banco e não de locks da aplicação,
+ * então é exercitado com o contexto completo e transações reais disputando
+ * o mesmo livro.
+ */
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class LoanCheckoutConcurrencyTest {
+
+    private static final int CUSTOMERS = 16;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(CUSTOMERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar o livro a um único cliente quando vários o pedem ao mesmo tempo")
+    public void concurrentCheckoutTest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // Cenário
+            Book book = bookRepository.save(Book.builder()
+                    .title("As aventuras")
+                    .autor("Fulano")
+                    .isbn("checkout-" + round)
+                    .build());
+
+            // Execução
+            List<Future<Loan>> results = checkoutAtOnce(book.getIsbn());
+
+            // Validações
+            List<Loan> winners = new ArrayList<>();
+            int rejected = 0;
+            for (Future<Loan> result : results) {
+                try {
+                    winners.add(result.get());
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BusinessException.class)
+                            .hasMessage("Book already loaned");
+                    rejected++;
+                }
+            }
+
+            assertThat(winners).hasSize(1);
+            assertThat(rejected).isEqualTo(CUSTOMERS - 1);
+            assertThat(bookRepository.findById(book.getId()).get().getActiveLoanId())
+                    .isEqualTo(winners.get(0).getId());
+            assertThat(loanRepository.findByBook(book, PageRequest.of(0, CUSTOMERS)).getContent())
+                    .extracting(Loan::getId)
+                    .containsExactly(winners.get(0).getId());
+        }
+    }
+
+    private List<Future<Loan>> checkoutAtOnce(String isbn) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(CUSTOMERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Loan>> results = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customer = "Cliente " + i;
+            Callable<Loan> checkout = () -> {
+                ready.countDown();
+                start.await();
+                return loanService.checkout(isbn, customer, null);
+            };
+            results.add(executor.submit(checkout));
+        }
+        ready.await();
+        start.countDown();
+
+        return results;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,13 +18,20 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import carreiras.com.github.java_spring_boot_library.dtos.LoanFilterDTO;
 import carreiras.com.github.java_spring_boot_library.entities.Book;
 import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.entities.LoanArchive;
 import carreiras.com.github.java_spring_boot_library.exceptions.BusinessException;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.BookRepository;
+import carreiras.com.github.java_spring_boot_library.repositories.LoanArchiveRepository;
 import carreiras.com.github.java_spring_boot_library.repositories.LoanRepository;
 import carreiras.com.github.java_spring_boot_library.services.impl.LoanServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ActiveProfiles("test")
 @ExtendWith(SpringExtension.class)
@@ -34,9 +42,20 @@ public class LoanServiceTest {
     @MockBean
     private LoanRepository loanRepository;
 
+    @MockBean
+    private LoanArchiveRepository loanArchiveRepository;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OverdueLoanWheel overdueLoanWheel = new OverdueLoanWheel();
+
     @BeforeEach
     public void setUp() {
-        this.loanService = new LoanServiceImpl(loanRepository);
+        this.loanService = new LoanServiceImpl(loanRepository, loanArchiveRepository, bookRepository, new LibraryMetrics(meterRegistry),
+                overdueLoanWheel);
     }
 
     @Test
@@ -62,8 +81,8 @@ public class LoanServiceTest {
                 .loanDate(LocalDate.now())
                 .build();
 
-        Mockito.when(loanRepository.existsByBookAndNotReturned(book)).thenReturn(false);
         Mockito.when(loanRepository.save(salvingLoan)).thenReturn(savedLoan);
+        Mockito.when(bookRepository.reserve(1L, 1L)).thenReturn(1);
 
         // Execução
         Loan loan = loanService.save(salvingLoan);
@@ -89,7 +108,13 @@ public class LoanServiceTest {
                 .loanDate(LocalDate.now())
                 .build();
 
-        Mockito.when(loanRepository.existsByBookAndNotReturned(book)).thenReturn(true);
+        Loan savedLoan = Loan.builder()
+                .id(2L)
+                .book(book)
+                .build();
+
+        Mockito.when(loanRepository.save(savingLoan)).thenReturn(savedLoan);
+        Mockito.when(bookRepository.reserve(1L, 2L)).thenReturn(0);
 
         // Execução
         Throwable exception = Assertions.catchThrowable(() -> loanService.save(savingLoan));
@@ -98,50 +123,117 @@ public class LoanServiceTest {
         Assertions.assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Book already loaned");
+        Assertions.assertThat(meterRegistry.counter(LibraryMetrics.BUSINESS_FAILURES,
+                "reason", LibraryMetrics.BOOK_ALREADY_LOANED).count()).isEqualTo(1);
 
-        Mockito.verify(loanRepository, Mockito.never()).save(savingLoan);
     }
 
     @Test
-    @DisplayName("Deve obter as informações de um empréstimo pelo Id")
-    public void getLoanDetailsTest() {
+    @DisplayName("Deve emprestar um livro pelo isbn buscando apenas a sua chave")
+    public void checkoutTest() {
         // Cenário
-        Long id = 1L;
+        Book book = Book.builder()
+                .id(1L)
+                .build();
 
-        Loan loan = createLoan();
-        loan.setId(id);
+        Mockito.when(bookRepository.findIdByIsbn("123")).thenReturn(Optional.of(1L));
+        Mockito.when(bookRepository.getById(1L)).thenReturn(book);
+        Mockito.when(loanRepository.save(Mockito.any(Loan.class)))
+                .thenAnswer(invocation -> {
+                    Loan loan = invocation.getArgument(0);
+                    loan.setId(3L);
+                    return loan;
+                });
+        Mockito.when(bookRepository.reserve(1L, 3L)).thenReturn(1);
+
+        // Execução
+        Loan loan = loanService.checkout("123", "Fulano", "fulano@email.com");
+
+        // Validações
+        Assertions.assertThat(loan.getId()).isEqualTo(3L);
+        Assertions.assertThat(loan.getBook()).isSameAs(book);
+        Assertions.assertThat(loan.getCustomerEmail()).isEqualTo("fulano@email.com");
+        Assertions.assertThat(loan.getLoanDate()).isEqualTo(LocalDate.now());
+        Assertions.assertThat(loan.getDueDate()).isEqualTo(LocalDate.now().plusDays(3));
+        Assertions.assertThat(overdueLoanWheel.pollDueBefore(LocalDate.now().plusDays(4)))
+                .containsEntry(LocalDate.now().plusDays(3), Set.of(3L));
+        Mockito.verify(bookRepository, Mockito.never()).findByIsbn(Mockito.anyString());
+    }
 
-        Mockito.when(loanRepository.findById(id)).thenReturn(Optional.of(loan));
+    @Test
+    @DisplayName("Deve lançar erro de negócio ao emprestar um isbn inexistente")
+    public void checkoutUnknownIsbnTest() {
+        // Cenário
+        Mockito.when(bookRepository.findIdByIsbn("123")).thenReturn(Optional.empty());
 
         // Execução
-        Optional<Loan> result = loanService.getById(id);
+        Throwable exception = Assertions.catchThrowable(() -> loanService.checkout("123", "Fulano", null));
 
         // Validações
-        Assertions.assertThat(result.isPresent()).isTrue();
-        Assertions.assertThat(result.get().getId()).isEqualTo(id);
-        Assertions.assertThat(result.get().getCustomer()).isEqualTo(loan.getCustomer());
-        Assertions.assertThat(result.get().getBook()).isEqualTo(loan.getBook());
-        Assertions.assertThat(result.get().getLoanDate()).isEqualTo(loan.getLoanDate());
+        Assertions.assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage(LoanService.BOOK_NOT_FOUND_MESSAGE);
+        Mockito.verify(loanRepository, Mockito.never()).save(Mockito.any(Loan.class));
+    }
 
-        Mockito.verify(loanRepository).findById(id);
+    @Test
+    @DisplayName("Deve devolver empréstimos por update, liberando os livros e tirando-os da roda")
+    public void returnLoansTest() {
+        // Cenário
+        overdueLoanWheel.schedule(1L, LocalDate.now());
+        overdueLoanWheel.schedule(3L, LocalDate.now());
+        Mockito.when(loanRepository.findIdsNotReturned(List.of(1L, 2L))).thenReturn(List.of(1L));
+        Mockito.when(loanRepository.markReturned(List.of(1L, 2L))).thenReturn(2);
+
+        // Execução
+        int returned = loanService.returnLoans(List.of(1L, 2L));
+
+        // Validações
+        Assertions.assertThat(returned).isEqualTo(2);
+        Mockito.verify(bookRepository).releaseAll(List.of(1L));
+        Mockito.verify(loanRepository, Mockito.never()).findById(Mockito.anyLong());
+        Assertions.assertThat(overdueLoanWheel.size()).isEqualTo(1);
     }
 
     @Test
-    @DisplayName("Deve atualizar um empréstimo")
-    public void updateLoanTest() {
+    @DisplayName("Deve alterar a roda de vencimentos só depois do commit da transação")
+    public void wheelChangesAfterCommitTest() {
         // Cenário
-        Loan loan = createLoan();
-        loan.setId(1L);
-        loan.setReturned(true);
+        overdueLoanWheel.schedule(1L, LocalDate.now());
+        Mockito.when(loanRepository.findIdsNotReturned(List.of(1L))).thenReturn(List.of(1L));
+        Mockito.when(loanRepository.markReturned(List.of(1L))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Execução
+            loanService.returnLoans(List.of(1L));
+            int beforeCommit = overdueLoanWheel.size();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Validações
+            Assertions.assertThat(beforeCommit).isEqualTo(1);
+            Assertions.assertThat(overdueLoanWheel.size()).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 
-        Mockito.when(loanRepository.save(loan)).thenReturn(loan);
+    @Test
+    @DisplayName("Deve agendar na roda os vencimentos em aberto lidos do banco")
+    public void scheduleDueDatesTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        Mockito.when(loanRepository.findDueDatesNotReturnedFrom(today))
+                .thenReturn(List.of(dueDate(1L, today), dueDate(2L, today.plusDays(1))));
 
         // Execução
-        Loan updatedLoan = loanService.update(loan);
+        int scheduled = loanService.scheduleDueDates(today);
 
         // Validações
-        Assertions.assertThat(updatedLoan.getReturned()).isTrue();
-        Mockito.verify(loanRepository).save(loan);
+        Assertions.assertThat(scheduled).isEqualTo(2);
+        Assertions.assertThat(OverdueLoanWheel.loanIds(overdueLoanWheel.pollDueBefore(today.plusDays(1))))
+                .containsExactly(1L);
+        Assertions.assertThat(overdueLoanWheel.size()).isEqualTo(1);
     }
 
     @Test
@@ -161,8 +253,7 @@ public class LoanServiceTest {
         PageRequest pageRequest = PageRequest.of(0, 10);
         Page<Loan> page = new PageImpl<Loan>(lista, pageRequest, lista.size());
 
-        Mockito.when(loanRepository.findByBookIsbnOrCustomer(Mockito.anyString(), Mockito.anyString(),
-                Mockito.any(PageRequest.class))).thenReturn(page);
+        Mockito.when(loanRepository.findByFilter(loanFilterDTO, pageRequest)).thenReturn(page);
 
         // Execução
         Page<Loan> result = loanService.find(loanFilterDTO, pageRequest);
@@ -174,6 +265,85 @@ public class LoanServiceTest {
         Assertions.assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("Deve completar com o arquivo a página de empréstimos do livro que passa dos ativos")
+    public void getLoansByBookMergingArchiveTest() {
+        // Cenário
+        Book book = Book.builder().id(1L).isbn("123").build();
+        PageRequest pageRequest = PageRequest.of(1, 2);
+        Loan loan = createLoan();
+        loan.setId(3L);
+
+        Mockito.when(loanRepository.findByBook(book, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(loan), pageRequest, 3));
+        Mockito.when(loanArchiveRepository.countByBookId(1L)).thenReturn(4L);
+        Mockito.when(loanArchiveRepository.findByBookId(1L, 1, 0))
+                .thenReturn(List.of(LoanArchive.builder().id(10L).customer("Ciclano").build()));
+
+        // Execução
+        Page<Loan> result = loanService.getLoansByBook(book, pageRequest);
+
+        // Validações
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(7);
+        Assertions.assertThat(result.getContent()).extracting(Loan::getId).containsExactly(3L, 10L);
+        Assertions.assertThat(result.getContent().get(1).getBook()).isSameAs(book);
+        Assertions.assertThat(result.getContent().get(1).getReturned()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve buscar só no arquivo a página de empréstimos do livro depois dos ativos")
+    public void getLoansByBookFromArchiveTest() {
+        // Cenário
+        Book book = Book.builder().id(1L).build();
+        PageRequest pageRequest = PageRequest.of(2, 2);
+
+        Mockito.when(loanRepository.findByBook(book, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(), pageRequest, 3));
+        Mockito.when(loanArchiveRepository.countByBookId(1L)).thenReturn(4L);
+        Mockito.when(loanArchiveRepository.findByBookId(1L, 2, 1))
+                .thenReturn(List.of(LoanArchive.builder().id(11L).build(), LoanArchive.builder().id(12L).build()));
+
+        // Execução
+        Page<Loan> result = loanService.getLoansByBook(book, pageRequest);
+
+        // Validações
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(7);
+        Assertions.assertThat(result.getContent()).extracting(Loan::getId).containsExactly(11L, 12L);
+    }
+
+    @Test
+    @DisplayName("Deve arquivar um lote de empréstimos devolvidos copiando e apagando pelos mesmos ids")
+    public void archiveReturnedLoansTest() {
+        // Cenário
+        LocalDate dueBefore = LocalDate.now().minusDays(90);
+        Mockito.when(loanRepository.findIdsReturnedDueBefore(dueBefore, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L));
+        Mockito.when(loanRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+
+        // Execução
+        int archived = loanService.archiveReturnedLoans(dueBefore, 2);
+
+        // Validações
+        Assertions.assertThat(archived).isEqualTo(2);
+        Mockito.verify(loanArchiveRepository).archive(List.of(1L, 2L), LocalDate.now());
+        Mockito.verify(loanRepository).deleteByIds(List.of(1L, 2L));
+    }
+
+    private LoanRepository.DueDate dueDate(Long id, LocalDate dueDate) {
+        return new LoanRepository.DueDate() {
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getDueDate() {
+                return dueDate;
+            }
+        };
+    }
+
     public static Loan createLoan() {
         Book book = Book.builder().id(1L).build();
         String customer = "Fulano";
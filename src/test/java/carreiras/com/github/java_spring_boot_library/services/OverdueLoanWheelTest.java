@@ -0,0 +1,53 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class OverdueLoanWheelTest {
+
+    private final OverdueLoanWheel wheel = new OverdueLoanWheel();
+
+    @Test
+    @DisplayName("Deve retirar da roda só os dias vencidos antes da data, em ordem de id")
+    public void pollDueBeforeTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        wheel.schedule(5L, today.minusDays(1));
+        wheel.schedule(2L, today.minusDays(3));
+        wheel.schedule(9L, today);
+        wheel.schedule(2L, today.minusDays(3));
+
+        // Execução
+        List<Long> due = OverdueLoanWheel.loanIds(wheel.pollDueBefore(today));
+
+        // Validações
+        Assertions.assertThat(due).containsExactly(2L, 5L);
+        Assertions.assertThat(wheel.size()).isEqualTo(1);
+        Assertions.assertThat(wheel.hasDueBefore(today)).isFalse();
+        Assertions.assertThat(wheel.hasDueBefore(today.plusDays(1))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve cancelar pelo id o vencimento de um empréstimo devolvido")
+    public void cancelTest() {
+        // Cenário
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        wheel.schedule(1L, yesterday);
+        wheel.schedule(2L, yesterday);
+        wheel.schedule(4L, yesterday);
+        wheel.schedule(4L, LocalDate.now());
+
+        // Execução
+        wheel.cancel(1L);
+        wheel.cancel(3L);
+
+        // Validações
+        Assertions.assertThat(wheel.size()).isEqualTo(2);
+        Assertions.assertThat(OverdueLoanWheel.loanIds(wheel.pollDueBefore(LocalDate.now()))).containsExactly(2L);
+        Assertions.assertThat(wheel.size()).isEqualTo(1);
+    }
+}
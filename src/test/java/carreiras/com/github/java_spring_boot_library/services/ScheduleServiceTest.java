@@ -0,0 +1,244 @@
+package carreiras.com.github.java_spring_boot_library.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import carreiras.com.github.java_spring_boot_library.entities.JobCheckpoint;
+import carreiras.com.github.java_spring_boot_library.entities.Loan;
+import carreiras.com.github.java_spring_boot_library.metrics.LibraryMetrics;
+import carreiras.com.github.java_spring_boot_library.repositories.JobCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+public class ScheduleServiceTest {
+
+    private static final String MESSAGE = "Empréstimo atrasado";
+
+    private ScheduleService scheduleService;
+
+    @MockBean
+    private LoanService loanService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    private OverdueLoanWheel overdueLoanWheel = new OverdueLoanWheel();
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        this.scheduleService = new ScheduleService(loanService, emailService, jobCheckpointRepository,
+                overdueLoanWheel, new LibraryMetrics(meterRegistry));
+        ReflectionTestUtils.setField(scheduleService, "message", MESSAGE);
+        ReflectionTestUtils.setField(scheduleService, "chunkSize", 2);
+        Mockito.when(emailService.sendEmails(Mockito.anyString(), Mockito.anyList()))
+                .thenReturn(CompletableFuture.completedFuture(MailDispatchReport.empty()));
+    }
+
+    @Test
+    @DisplayName("Deve avisar em lotes só os empréstimos que venceram e registrar o progresso a cada lote")
+    public void sendMailToLateLoansInChunksTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        overdueLoanWheel.schedule(3L, today.minusDays(2));
+        overdueLoanWheel.schedule(1L, today.minusDays(1));
+        overdueLoanWheel.schedule(2L, today.minusDays(1));
+        overdueLoanWheel.schedule(4L, today);
+        Mockito.when(loanService.getLateLoans(List.of(1L, 2L)))
+                .thenReturn(List.of(loan(1L, "a@email.com"), loan(2L, null)));
+        Mockito.when(loanService.getLateLoans(List.of(3L)))
+                .thenReturn(List.of(loan(3L, "c@email.com")));
+        List<String> progress = new ArrayList<>();
+        Mockito.when(jobCheckpointRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            JobCheckpoint checkpoint = invocation.getArgument(0);
+            progress.add(checkpoint.getLastId() + ":" + checkpoint.getFinished());
+            return checkpoint;
+        });
+
+        // Execução
+        scheduleService.sendMailToLateLoans();
+
+        // Validações
+        Mockito.verify(emailService).sendEmails(MESSAGE, List.of("a@email.com"));
+        Mockito.verify(emailService).sendEmails(MESSAGE, List.of("c@email.com"));
+        Assertions.assertThat(overdueLoanWheel.size()).isEqualTo(1);
+
+        ArgumentCaptor<JobCheckpoint> checkpoint = ArgumentCaptor.forClass(JobCheckpoint.class);
+        Mockito.verify(jobCheckpointRepository, Mockito.times(2)).save(checkpoint.capture());
+        Assertions.assertThat(progress).containsExactly("2:false", "3:true");
+        Assertions.assertThat(checkpoint.getValue().getRunDate()).isEqualTo(today);
+        Assertions.assertThat(checkpoint.getValue().getDueFrom()).isEqualTo(LocalDate.EPOCH);
+        Assertions.assertThat(meterRegistry.get(LibraryMetrics.JOB_DURATION)
+                .tags("job", ScheduleService.LATE_LOANS_JOB, "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve retomar uma execução interrompida depois do último empréstimo avisado")
+    public void resumeInterruptedRunTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        LocalDate lastWeek = today.minusDays(7);
+        overdueLoanWheel.schedule(1L, today.minusDays(2));
+        overdueLoanWheel.schedule(2L, today.minusDays(2));
+        overdueLoanWheel.schedule(3L, today.minusDays(1));
+        Mockito.when(jobCheckpointRepository.findById(ScheduleService.LATE_LOANS_JOB))
+                .thenReturn(Optional.of(JobCheckpoint.builder()
+                        .job(ScheduleService.LATE_LOANS_JOB)
+                        .runDate(today)
+                        .dueFrom(lastWeek)
+                        .lastId(2L)
+                        .finished(false)
+                        .build()));
+        Mockito.when(loanService.getLateLoans(List.of(3L)))
+                .thenReturn(List.of(loan(3L, "c@email.com")));
+
+        // Execução
+        scheduleService.sendMailToLateLoans();
+
+        // Validações
+        Mockito.verify(loanService).getLateLoans(List.of(3L));
+        Mockito.verify(emailService).sendEmails(MESSAGE, List.of("c@email.com"));
+        Mockito.verifyNoMoreInteractions(emailService);
+
+        ArgumentCaptor<JobCheckpoint> checkpoint = ArgumentCaptor.forClass(JobCheckpoint.class);
+        Mockito.verify(jobCheckpointRepository).save(checkpoint.capture());
+        Assertions.assertThat(checkpoint.getValue().getDueFrom()).isEqualTo(lastWeek);
+        Assertions.assertThat(checkpoint.getValue().getLastId()).isEqualTo(3L);
+        Assertions.assertThat(checkpoint.getValue().getFinished()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Não deve ir ao banco enquanto nenhum empréstimo vencer")
+    public void skipWhenNothingIsDueTest() {
+        // Cenário
+        overdueLoanWheel.schedule(1L, LocalDate.now());
+
+        // Execução
+        scheduleService.sendMailToLateLoans();
+
+        // Validações
+        Mockito.verifyNoInteractions(loanService, emailService, jobCheckpointRepository);
+        Assertions.assertThat(overdueLoanWheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve devolver à roda os empréstimos de um envio que falhou")
+    public void failedSendReschedulesTest() {
+        // Cenário
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        overdueLoanWheel.schedule(1L, yesterday);
+        Mockito.when(loanService.getLateLoans(List.of(1L))).thenReturn(List.of(loan(1L, "a@email.com")));
+        Mockito.when(emailService.sendEmails(MESSAGE, List.of("a@email.com")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("smtp")));
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> scheduleService.sendMailToLateLoans());
+
+        // Validações
+        Assertions.assertThat(exception).hasCauseInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(overdueLoanWheel.pollDueBefore(LocalDate.now())).containsEntry(yesterday, Set.of(1L));
+        Mockito.verify(jobCheckpointRepository, Mockito.never()).save(Mockito.any());
+        Assertions.assertThat(meterRegistry.get(LibraryMetrics.JOB_DURATION)
+                .tags("job", ScheduleService.LATE_LOANS_JOB, "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir a roda a partir do último dia avisado")
+    public void scheduleDueDatesFromCheckpointTest() {
+        // Cenário
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Mockito.when(jobCheckpointRepository.findById(ScheduleService.LATE_LOANS_JOB))
+                .thenReturn(Optional.of(JobCheckpoint.builder()
+                        .job(ScheduleService.LATE_LOANS_JOB)
+                        .runDate(yesterday)
+                        .lastId(10L)
+                        .finished(true)
+                        .build()));
+
+        // Execução
+        scheduleService.scheduleDueDates();
+
+        // Validações
+        Mockito.verify(loanService).scheduleDueDates(yesterday);
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir a roda a partir do primeiro dia de uma execução interrompida")
+    public void scheduleDueDatesFromInterruptedCheckpointTest() {
+        // Cenário
+        LocalDate lastWeek = LocalDate.now().minusDays(7);
+        Mockito.when(jobCheckpointRepository.findById(ScheduleService.LATE_LOANS_JOB))
+                .thenReturn(Optional.of(JobCheckpoint.builder()
+                        .job(ScheduleService.LATE_LOANS_JOB)
+                        .runDate(LocalDate.now())
+                        .dueFrom(lastWeek)
+                        .lastId(10L)
+                        .finished(false)
+                        .build()));
+
+        // Execução
+        scheduleService.scheduleDueDates();
+
+        // Validações
+        Mockito.verify(loanService).scheduleDueDates(lastWeek);
+    }
+
+    @Test
+    @DisplayName("Deve agendar todos os empréstimos em aberto na primeira subida")
+    public void scheduleAllDueDatesWithoutCheckpointTest() {
+        // Cenário
+        Mockito.when(jobCheckpointRepository.findById(ScheduleService.LATE_LOANS_JOB)).thenReturn(Optional.empty());
+
+        // Execução
+        scheduleService.scheduleDueDates();
+
+        // Validações
+        Mockito.verify(loanService).scheduleDueDates(LocalDate.EPOCH);
+    }
+
+    @Test
+    @DisplayName("Deve arquivar em lotes até o primeiro lote incompleto")
+    public void archiveReturnedLoansTest() {
+        // Cenário
+        ReflectionTestUtils.setField(scheduleService, "archiveAfterDays", 90);
+        ReflectionTestUtils.setField(scheduleService, "archiveBatchSize", 2);
+        LocalDate dueBefore = LocalDate.now().minusDays(90);
+        Mockito.when(loanService.archiveReturnedLoans(dueBefore, 2)).thenReturn(2, 2, 1);
+
+        // Execução
+        scheduleService.archiveReturnedLoans();
+
+        // Validações
+        Mockito.verify(loanService, Mockito.times(3)).archiveReturnedLoans(dueBefore, 2);
+        Assertions.assertThat(meterRegistry.get(LibraryMetrics.JOB_DURATION)
+                .tags("job", ScheduleService.ARCHIVE_JOB, "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    private Loan loan(Long id, String email) {
+        return Loan.builder().id(id).customerEmail(email).build();
+    }
+}